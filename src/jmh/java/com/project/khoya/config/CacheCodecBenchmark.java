@@ -0,0 +1,146 @@
+package com.project.khoya.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.khoya.dto.AlertListResponse;
+import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.dto.CommentResponse;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.CommentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CacheValueCodec} with the typed-JSON serializer it replaced, on a listing page and a comment
+ * thread shaped like production data. The encoded size of each combination is printed once per fork.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CacheCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"page", "comments"})
+    private String payload;
+
+    @Param({"legacy", "json", "json+lz4", "smile", "smile+lz4", "cbor", "cbor+lz4"})
+    private String codec;
+
+    private Object value;
+    private RedisSerializer<Object> serializer;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper legacyMapper = new ObjectMapper();
+        legacyMapper.registerModule(new JavaTimeModule());
+        legacyMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        legacyMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+
+        JavaType type = payload.equals("page")
+                ? legacyMapper.getTypeFactory().constructType(AlertListResponse.class)
+                : legacyMapper.getTypeFactory().constructCollectionType(List.class, CommentResponse.class);
+        value = payload.equals("page") ? samplePage(20) : sampleComments(10, 3);
+
+        if (codec.equals("legacy")) {
+            serializer = new Jackson2JsonRedisSerializer<>(legacyMapper, Object.class);
+        } else {
+            String[] parts = codec.split("\\+");
+            serializer = new CacheValueCodec(type, CacheValueCodec.Format.of(parts[0]), parts.length > 1 ? 1 : 0);
+        }
+
+        encoded = serializer.serialize(value);
+        if (!Objects.equals(value, serializer.deserialize(encoded))) {
+            throw new IllegalStateException(codec + " does not round-trip");
+        }
+        System.out.printf("%n%s / %s: %d bytes%n", payload, codec, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static AlertListResponse samplePage(int size) {
+        List<AlertResponse> alerts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2024, 5, 14, 18, 30, 12, 123_456_000);
+        for (int i = 0; i < size; i++) {
+            alerts.add(AlertResponse.builder()
+                    .id(1000L + i)
+                    .title("Missing Person - Rahul Sharma " + i)
+                    .description("Last seen wearing a blue school uniform and carrying a red backpack near the main bus stand. Approximately 4 feet tall, speaks Marathi and Hindi.")
+                    .location("Shivaji Nagar, Pune, Maharashtra")
+                    .latitude(18.5308 + i * 0.001)
+                    .longitude(73.8475 - i * 0.001)
+                    .imageUrl("https://res.cloudinary.com/khoya/image/upload/v1715700000/alerts/alert_" + (1000 + i) + ".jpg")
+                    .status(AlertStatus.ACTIVE)
+                    .reportCount(i % 4)
+                    .createdAt(now.minusHours(i))
+                    .updatedAt(now.minusMinutes(i * 7L))
+                    .postedBy(new AlertResponse.UserInfo(500L + i, "Priya Deshmukh", "priya.deshmukh" + i + "@example.com"))
+                    .upvotes(15 + i)
+                    .downvotes(i % 3)
+                    .score(15 + i - i % 3)
+                    .commentCount(i % 9)
+                    .build());
+        }
+        return AlertListResponse.builder().alerts(alerts).page(0).size(size).totalElements(348).totalPages(18).isFirst(true).isLast(false).build();
+    }
+
+    private static List<CommentResponse> sampleComments(int threads, int replies) {
+        List<CommentResponse> comments = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2024, 5, 14, 18, 30, 12, 123_456_000);
+        for (int i = 0; i < threads; i++) {
+            List<CommentResponse> children = new ArrayList<>();
+            for (int j = 0; j < replies; j++) {
+                children.add(comment(10_000L + i * 100 + j, "Thanks, forwarding this to the local police station.", now.minusMinutes(j), null));
+            }
+            comments.add(comment(10_000L + i * 100 + 99, "I think I saw him near the railway station yesterday evening around 7pm, he was with an older man.", now.minusHours(i), children));
+        }
+        return comments;
+    }
+
+    private static CommentResponse comment(Long id, String content, LocalDateTime createdAt, List<CommentResponse> replies) {
+        return CommentResponse.builder()
+                .id(id)
+                .content(content)
+                .upvotes(3)
+                .downvotes(0)
+                .score(3)
+                .status(CommentStatus.ACTIVE)
+                .createdAt(createdAt)
+                .author(new CommentResponse.UserInfo(id % 97, "Amit Kulkarni", "amit.k@example.com"))
+                .replies(replies)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.project.khoya.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Value serializer for one Redis cache. Values are written as the cache's declared type, so no class names
+ * are embedded, in JSON, Smile or CBOR, and LZ4-compressed once they reach a size threshold.
+ * <p>
+ * Every value starts with a 4-byte header: a zero marker (never the first byte of JSON), the codec version,
+ * the format and a flags byte; compressed values then carry their uncompressed length. Readers decode by
+ * the header rather than their own settings, so the format or threshold can change during a rolling deploy.
+ * A value with a version this node does not know, or that no longer fits the declared type, is treated as a
+ * cache miss; unknown properties are ignored for the same reason.
+ */
+@Slf4j
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    /**
+     * Goes into the cache key prefix so nodes still on the headerless JSON serializer never read these values.
+     */
+    public static final String KEY_SEGMENT = "codec";
+
+    static final byte MARKER = 0;
+    static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 4;
+    private static final byte FLAG_LZ4 = 1;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+    private static final Map<Format, ObjectMapper> MAPPERS = new EnumMap<>(Format.class);
+
+    public enum Format {
+        JSON(1, new JsonFactory()),
+        SMILE(2, new SmileFactory()),
+        CBOR(3, new CBORFactory());
+
+        private final byte id;
+        private final JsonFactory factory;
+
+        Format(int id, JsonFactory factory) {
+            this.id = (byte) id;
+            this.factory = factory;
+        }
+
+        public static Format of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+
+        static Format byId(byte id) {
+            for (Format format : values()) {
+                if (format.id == id) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    static {
+        for (Format format : Format.values()) {
+            ObjectMapper mapper = new ObjectMapper(format.factory);
+            mapper.registerModule(new JavaTimeModule());
+            // Binary formats store timestamps as a few small ints; JSON stays readable in redis-cli
+            mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, format != Format.JSON);
+            mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+            MAPPERS.put(format, mapper);
+        }
+    }
+
+    private final JavaType type;
+    private final Format format;
+    private final int compressThreshold;
+
+    /**
+     * @param compressThreshold encoded size in bytes from which values are compressed; 0 or less disables it
+     */
+    public CacheValueCodec(JavaType type, Format format, int compressThreshold) {
+        this.type = type;
+        this.format = format;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public static ObjectMapper mapper(Format format) {
+        return MAPPERS.get(format);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] encoded;
+        try {
+            encoded = MAPPERS.get(format).writerFor(type).writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not encode " + type + " as " + format, e);
+        }
+
+        if (compressThreshold > 0 && encoded.length >= compressThreshold) {
+            byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(encoded.length)];
+            int compressedLength = COMPRESSOR.compress(encoded, 0, encoded.length, compressed, 0);
+            // Already-dense payloads can grow; keep whichever is smaller
+            if (compressedLength + Integer.BYTES < encoded.length) {
+                return ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + compressedLength).put(header(FLAG_LZ4)).putInt(encoded.length).put(compressed, 0, compressedLength).array();
+            }
+        }
+        return ByteBuffer.allocate(HEADER_LENGTH + encoded.length).put(header((byte) 0)).put(encoded).array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MARKER || bytes[1] > VERSION) {
+            log.debug("Skipping cached {} with unknown header", type);
+            return null;
+        }
+        Format storedFormat = Format.byId(bytes[2]);
+        if (storedFormat == null) {
+            log.debug("Skipping cached {} in unknown format {}", type, bytes[2]);
+            return null;
+        }
+
+        try {
+            if ((bytes[3] & FLAG_LZ4) != 0) {
+                int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+                byte[] decompressed = DECOMPRESSOR.decompress(bytes, HEADER_LENGTH + Integer.BYTES, length);
+                return MAPPERS.get(storedFormat).readValue(decompressed, type);
+            }
+            return MAPPERS.get(storedFormat).readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, type);
+        } catch (Exception e) {
+            // Typically a DTO changed incompatibly; reload rather than fail the request
+            log.warn("Could not decode cached {}, treating as a miss: {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] header(byte flags) {
+        return new byte[]{MARKER, VERSION, format.id, flags};
+    }
+}
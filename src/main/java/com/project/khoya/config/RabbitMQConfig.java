@@ -4,11 +4,13 @@ import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -36,6 +38,14 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-key.feature-extraction}")
     private String featureExtractionRoutingKey;
 
+    // Micro-batching: deliver up to batch-size messages, or whatever arrived within batch-timeout-ms
+    @Value("${rabbitmq.feature-extraction.batch-size:16}")
+    private int featureExtractionBatchSize;
+    @Value("${rabbitmq.feature-extraction.batch-timeout-ms:200}")
+    private long featureExtractionBatchTimeoutMs;
+    @Value("${rabbitmq.feature-extraction.consumers:1}")
+    private int featureExtractionConsumers;
+
     @Bean
     public Queue socialMediaQueue() {
         return new Queue(socialMediaQueue, true); // durable = true
@@ -73,6 +83,19 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(featureExtractionQueue()).to(exchange()).with(featureExtractionRoutingKey);
     }
 
+    @Bean
+    public SimpleRabbitListenerContainerFactory featureExtractionListenerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(featureExtractionBatchSize);
+        factory.setReceiveTimeout(featureExtractionBatchTimeoutMs);
+        factory.setPrefetchCount(featureExtractionBatchSize * 2);
+        factory.setConcurrentConsumers(featureExtractionConsumers);
+        return factory;
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
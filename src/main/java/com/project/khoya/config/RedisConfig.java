@@ -1,10 +1,15 @@
 package com.project.khoya.config;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.khoya.dto.AlertListResponse;
+import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.dto.CommentResponse;
+import com.project.khoya.service.AlertCacheGenerations;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,11 +21,17 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
@@ -71,8 +82,46 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Plain byte values, for payloads that are already encoded (cached HTTP responses).
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, byte[]> rawRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Value("${app.cache.l1.max-size:10000}")
+    private long localCacheMaxSize;
+
+    @Value("${app.cache.l1.ttl-seconds:60}")
+    private long localCacheTtlSeconds;
+
+    @Value("${app.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${app.cache.single-flight.wait-ms:5000}")
+    private long singleFlightWaitMillis;
+
+    @Value("${app.cache.codec.format:smile}")
+    private String codecFormat;
+
+    // Per-cache format overrides, e.g. app.cache.codec.formats={alertComments:'json'}
+    @Value("#{${app.cache.codec.formats:{:}}}")
+    private Map<String, String> codecFormats;
+
+    @Value("${app.cache.codec.compress-threshold-bytes:1024}")
+    private int codecCompressThreshold;
+
+    /**
+     * Caffeine L1 per node over the Redis caches below; see {@link TwoLevelCacheManager}.
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -82,6 +131,31 @@ public class RedisConfig {
 
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofHours(1)).serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())).serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)).disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory).cacheDefaults(cacheConfig).withCacheConfiguration("alerts", cacheConfig.entryTtl(Duration.ofMinutes(30))).withCacheConfiguration("alertById", cacheConfig.entryTtl(Duration.ofMinutes(15))).withCacheConfiguration("userAlerts", cacheConfig.entryTtl(Duration.ofMinutes(10))).build();
+        // Caches with a declared value type use the compact codec; anything else keeps typed JSON
+        TypeFactory types = objectMapper.getTypeFactory();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory).cacheDefaults(cacheConfig).enableStatistics()
+                .withCacheConfiguration("alerts", withCodec(cacheConfig, "alerts", types.constructType(AlertListResponse.class)).entryTtl(Duration.ofMinutes(30)))
+                .withCacheConfiguration("alertById", withCodec(cacheConfig, "alertById", types.constructType(AlertResponse.class)).entryTtl(Duration.ofMinutes(15)))
+                .withCacheConfiguration("userAlerts", withCodec(cacheConfig, "userAlerts", types.constructCollectionType(List.class, AlertResponse.class)).entryTtl(Duration.ofMinutes(10)))
+                .withCacheConfiguration("alertComments", withCodec(cacheConfig, "alertComments", types.constructCollectionType(List.class, CommentResponse.class)))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, localCacheMaxSize, Duration.ofSeconds(localCacheTtlSeconds), earlyRefreshBeta, singleFlightWaitMillis);
+    }
+
+    private RedisCacheConfiguration withCodec(RedisCacheConfiguration base, String cacheName, JavaType valueType) {
+        CacheValueCodec.Format format = CacheValueCodec.Format.of(codecFormats.getOrDefault(cacheName, codecFormat));
+        CacheValueCodec codec = new CacheValueCodec(valueType, format, codecCompressThreshold);
+        return base.computePrefixWith(name -> name + "::" + CacheValueCodec.KEY_SEGMENT + "::").serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(codec));
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory, TwoLevelCacheManager cacheManager, AlertCacheGenerations alertCacheGenerations) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        container.addMessageListener(alertCacheGenerations, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return container;
     }
 }
\ No newline at end of file
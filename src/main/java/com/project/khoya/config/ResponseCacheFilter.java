@@ -0,0 +1,159 @@
+package com.project.khoya.config;
+
+import com.project.khoya.dto.AlertListParams;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.service.ResponseCacheService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves {@code GET /api/alerts}, {@code /api/alerts/{id}} and anonymous {@code GET /api/alerts-social} from
+ * {@link ResponseCacheService}: a hit writes the stored JSON bytes straight to the response, or answers 304
+ * when {@code If-None-Match} carries its ETag, without reaching the controller. A miss runs the request,
+ * stores a 200 JSON body and adds its ETag.
+ * <p>
+ * Runs after Spring Security, so the social listing can tell anonymous callers (whose view has no
+ * per-user vote or edit flags) from signed-in ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern ALERT_PATH = Pattern.compile("/api/alerts/(\\d+)");
+
+    private final ResponseCacheService responseCache;
+
+    @Value("${app.cache.response.enabled:true}")
+    private boolean enabled;
+
+    // Bodies over this size (bytes) are served but not cached
+    @Value("${app.cache.response.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = null;
+        Duration ttl = null;
+        try {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            Matcher alertPath = ALERT_PATH.matcher(path);
+            if ("/api/alerts".equals(path)) {
+                key = responseCache.listingKey(listParams(request));
+                ttl = responseCache.listingTtl();
+            } else if (alertPath.matches()) {
+                key = responseCache.alertKey(Long.valueOf(alertPath.group(1)));
+                ttl = responseCache.alertTtl();
+            } else if ("/api/alerts-social".equals(path) && isAnonymous()) {
+                key = responseCache.socialListingKey(listParams(request));
+                ttl = responseCache.socialTtl();
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed parameters: let the controller produce its usual error
+            key = null;
+        }
+
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ResponseCacheService.CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            writeCached(request, response, cached);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        int length = wrapper.getContentSize();
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || length == 0 || length > maxBodyBytes || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        String etag = responseCache.put(key, wrapper.getContentAsByteArray(), ttl);
+        wrapper.setHeader(HttpHeaders.ETAG, etag);
+        if (etagMatches(request, etag)) {
+            responseCache.recordNotModified();
+            wrapper.resetBuffer();
+            wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, ResponseCacheService.CachedResponse cached) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        if (etagMatches(request, cached.etag())) {
+            responseCache.recordNotModified();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(cached.length());
+        response.getOutputStream().write(cached.value(), cached.offset(), cached.length());
+    }
+
+    private static boolean etagMatches(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated();
+    }
+
+    // Same defaults as the controllers' @RequestParams, then the same normalization
+    private static AlertListParams listParams(HttpServletRequest request) {
+        return AlertListParams.of(intParam(request, "page", 0), intParam(request, "size", 10), request.getParameter("location"), statusParam(request), request.getParameter("sortBy"));
+    }
+
+    private static int intParam(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static AlertStatus statusParam(HttpServletRequest request) {
+        String value = request.getParameter("status");
+        return value == null || value.isEmpty() ? null : AlertStatus.valueOf(value.trim());
+    }
+}
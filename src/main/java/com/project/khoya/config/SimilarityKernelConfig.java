@@ -0,0 +1,37 @@
+package com.project.khoya.config;
+
+import com.project.khoya.service.Image.ScalarSimilarityKernel;
+import com.project.khoya.service.Image.SimilarityKernel;
+import com.project.khoya.service.Image.VectorSimilarityKernel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class SimilarityKernelConfig {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * auto: Vector API when the JVM was started with --add-modules jdk.incubator.vector, scalar otherwise.
+     */
+    @Bean
+    public SimilarityKernel similarityKernel(@Value("${app.similarity.kernel:auto}") String kernel) {
+        boolean vectorAvailable = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+
+        SimilarityKernel selected;
+        if ("scalar".equalsIgnoreCase(kernel) || !vectorAvailable) {
+            if ("vector".equalsIgnoreCase(kernel)) {
+                log.warn("Vector similarity kernel requested but module {} is not loaded, using scalar", VECTOR_MODULE);
+            }
+            selected = new ScalarSimilarityKernel();
+        } else {
+            selected = new VectorSimilarityKernel();
+        }
+
+        log.info("Using {} similarity kernel", selected.name());
+        return selected;
+    }
+}
@@ -0,0 +1,291 @@
+package com.project.khoya.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Spring cache with an in-process Caffeine L1 in front of a shared Redis L2. Reads try L1, then L2
+ * (promoting hits into L1); writes go to both. Every put, evict and clear is announced to the other nodes
+ * through {@link TwoLevelCacheManager} so they drop their L1 copy; the L1 TTL bounds staleness if an
+ * announcement is lost. An L1 entry never outlives its L2 entry.
+ * <p>
+ * {@code @Cacheable(sync = true)} lookups ({@link #get(Object, Callable)}) are coalesced: one loader per key
+ * per node, with concurrent callers waiting on its result. They also refresh ahead of L2 expiry with
+ * probabilistic early expiration (XFetch): each hit recomputes early with a probability that rises as
+ * expiry nears and with how long a load takes, so a hot key is usually reloaded by one caller before it
+ * expires rather than by every caller after.
+ * <p>
+ * L1 hands out the cached instances themselves, so cached values must be treated as immutable.
+ */
+@Slf4j
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    // Value plus the epoch millis its L2 copy expires at (Long.MAX_VALUE when unknown)
+    record LocalEntry(Object value, long expiresAt) {
+    }
+
+    private final String name;
+    private final Cache<Object, LocalEntry> local;
+    private final org.springframework.cache.Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Moving average of loader time, the delta in XFetch
+    private final AtomicLong averageLoadMillis = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong earlyRefreshes = new AtomicLong();
+
+    TwoLevelCache(String name, Cache<Object, LocalEntry> local, org.springframework.cache.Cache remote, TwoLevelCacheManager manager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public Cache<Object, LocalEntry> getLocalCache() {
+        return local;
+    }
+
+    public org.springframework.cache.Cache getRemoteCache() {
+        return remote;
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.get();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        LocalEntry entry = local.getIfPresent(key);
+        if (entry != null) {
+            return new SimpleValueWrapper(entry.value());
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            promote(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        LocalEntry entry = local.getIfPresent(key);
+        if (entry != null) {
+            if (shouldRefreshEarly(entry) && !inFlight.containsKey(key)) {
+                CompletableFuture<Object> refresh = new CompletableFuture<>();
+                if (inFlight.putIfAbsent(key, refresh) == null) {
+                    // This caller recomputes; everyone else keeps the current value meanwhile
+                    earlyRefreshes.incrementAndGet();
+                    try {
+                        Object value = load(key, valueLoader);
+                        refresh.complete(value);
+                        return (T) value;
+                    } catch (RuntimeException e) {
+                        refresh.complete(entry.value());
+                        log.warn("Early refresh of {}::{} failed, serving cached value: {}", name, key, e.getMessage());
+                    } finally {
+                        inFlight.remove(key, refresh);
+                    }
+                }
+            }
+            return (T) entry.value();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            return (T) await(key, leader, valueLoader);
+        }
+
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            Object value;
+            if (wrapper != null && wrapper.get() != null) {
+                value = wrapper.get();
+                promote(key, value);
+            } else {
+                value = load(key, valueLoader);
+            }
+            mine.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(key, new LocalEntry(value, expiryOfNewEntry(key, value)));
+        }
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null && value != null) {
+            local.put(key, new LocalEntry(value, expiryOfNewEntry(key, value)));
+            manager.publishEvict(name, key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(key);
+        manager.publishEvict(name, key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        local.invalidateAll();
+        manager.publishClear(name);
+        return present;
+    }
+
+    /**
+     * Drop an L1 entry on behalf of another node.
+     */
+    void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        long start = System.currentTimeMillis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        loads.incrementAndGet();
+        averageLoadMillis.updateAndGet(average -> average == 0 ? elapsed : (average * 7 + elapsed) / 8);
+
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    private Object await(Object key, CompletableFuture<Object> leader, Callable<?> valueLoader) {
+        try {
+            return leader.get(manager.getSingleFlightWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Gave up waiting for the in-flight load of {}::{}, loading directly", name, key);
+            return load(key, valueLoader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * XFetch: refresh when now - delta * beta * ln(rand) reaches the expiry.
+     */
+    private boolean shouldRefreshEarly(LocalEntry entry) {
+        double beta = manager.getEarlyRefreshBeta();
+        long delta = averageLoadMillis.get();
+        if (beta <= 0 || delta <= 0 || entry.expiresAt() == Long.MAX_VALUE) {
+            return false;
+        }
+        double gap = -delta * beta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAt();
+    }
+
+    private void promote(Object key, Object value) {
+        long expiresAt = Long.MAX_VALUE;
+        if (remote instanceof RedisCache redisCache) {
+            Long ttl = manager.remainingTtlMillis(redisCache.getCacheConfiguration().getKeyPrefixFor(name) + key);
+            if (ttl != null && ttl > 0) {
+                expiresAt = System.currentTimeMillis() + ttl;
+            }
+        }
+        local.put(key, new LocalEntry(value, expiresAt));
+    }
+
+    private long expiryOfNewEntry(Object key, Object value) {
+        if (remote instanceof RedisCache redisCache) {
+            long ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value).toMillis();
+            if (ttl > 0) {
+                return System.currentTimeMillis() + ttl;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
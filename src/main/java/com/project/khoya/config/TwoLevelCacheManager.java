@@ -0,0 +1,172 @@
+package com.project.khoya.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layers a bounded Caffeine L1 over every cache of the Redis {@link CacheManager}. Invalidations travel
+ * over a Redis pub/sub channel as {@code node|cache|op|key}; each node ignores its own messages and drops
+ * the named L1 entry (or the whole L1 cache) for the others.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final double earlyRefreshBeta;
+    private final long singleFlightWaitMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param earlyRefreshBeta       XFetch aggressiveness; 0 disables refresh-ahead, above 1 refreshes earlier
+     * @param singleFlightWaitMillis how long a coalesced caller waits for the leader before loading itself
+     */
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, long localMaxSize, Duration localTtl, double earlyRefreshBeta, long singleFlightWaitMillis) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.singleFlightWaitMillis = singleFlightWaitMillis;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new TwoLevelCache(key, Caffeine.newBuilder().maximumSize(localMaxSize).expireAfter(localExpiry()).recordStats().build(), remoteCache, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    long getSingleFlightWaitMillis() {
+        return singleFlightWaitMillis;
+    }
+
+    /**
+     * Milliseconds until the Redis key expires, or null when it has no TTL or Redis is unavailable.
+     */
+    Long remainingTtlMillis(String redisKey) {
+        try {
+            Long ttl = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            return ttl != null && ttl > 0 ? ttl : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    void publishEvict(String cacheName, Object key) {
+        String encodedKey = encodeKey(key);
+        publish(cacheName + (encodedKey == null ? "|C|" : "|E|" + encodedKey));
+    }
+
+    void publishClear(String cacheName) {
+        publish(cacheName + "|C|");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if ("E".equals(parts[2])) {
+            cache.evictLocal(decodeKey(parts[3]));
+        } else {
+            cache.clearLocal();
+        }
+    }
+
+    // L1 entries live for the local TTL, but never past the expiry of their L2 copy
+    private Expiry<Object, TwoLevelCache.LocalEntry> localExpiry() {
+        long localTtlNanos = localTtl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, TwoLevelCache.LocalEntry entry, long currentTime) {
+                if (entry.expiresAt() == Long.MAX_VALUE) {
+                    return localTtlNanos;
+                }
+                long untilRemoteExpiry = TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt() - System.currentTimeMillis()));
+                return Math.min(localTtlNanos, untilRemoteExpiry);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, TwoLevelCache.LocalEntry entry, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, entry, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, TwoLevelCache.LocalEntry entry, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private void publish(String body) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + body);
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    // Keys in this app are ids or composed strings; anything else clears the whole cache remotely
+    private static String encodeKey(Object key) {
+        if (key instanceof Long) {
+            return "l:" + key;
+        }
+        if (key instanceof Integer) {
+            return "i:" + key;
+        }
+        if (key instanceof String) {
+            return "s:" + key;
+        }
+        return null;
+    }
+
+    private static Object decodeKey(String encoded) {
+        String value = encoded.substring(2);
+        return switch (encoded.charAt(0)) {
+            case 'l' -> Long.valueOf(value);
+            case 'i' -> Integer.valueOf(value);
+            default -> value;
+        };
+    }
+}
@@ -1,17 +1,28 @@
 package com.project.khoya.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.khoya.config.TwoLevelCache;
 import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.dto.AlertSummary;
 import com.project.khoya.entity.AlertStatus;
 import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.service.AlertCacheGenerations;
+import com.project.khoya.service.AlertSearchService;
 import com.project.khoya.service.AlertService;
+import com.project.khoya.service.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +36,10 @@ public class AdminAlertController {
 
     private final AlertService alertService;
     private final MissingAlertRepository alertRepository;
+    private final AlertSearchService alertSearchService;
+    private final AlertCacheGenerations cacheGenerations;
+    private final ResponseCacheService responseCache;
+    private final CacheManager cacheManager;
 
     @GetMapping("/stats")
     @Operation(summary = "Get alert statistics", description = "Get comprehensive statistics about alerts", security = @SecurityRequirement(name = "bearerAuth"))
@@ -39,10 +54,10 @@ public class AdminAlertController {
 
 
         LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        stats.put("recentAlerts", alertRepository.findRecentAlerts(weekAgo).size());
+        stats.put("recentAlerts", alertRepository.countByCreatedAtGreaterThanEqual(weekAgo));
 
 
-        stats.put("highReportAlerts", alertRepository.findAlertsWithHighReportCount(5).size());
+        stats.put("highReportAlerts", alertRepository.countByReportCountGreaterThanEqual(5));
 
         return ResponseEntity.ok(stats);
     }
@@ -51,8 +66,7 @@ public class AdminAlertController {
     @Operation(summary = "Get alerts with high report count", description = "Get alerts that have been reported multiple times for admin review", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Map<String, Object>> getHighReportAlerts(@RequestParam(defaultValue = "5") int threshold) {
 
-        var alerts = alertRepository.findAlertsWithHighReportCount(threshold);
-        var alertResponses = alerts.stream().map(alert -> AlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).postedBy(AlertResponse.UserInfo.builder().id(alert.getPostedBy().getId()).name(alert.getPostedBy().getName()).email(alert.getPostedBy().getEmail()).build()).build()).toList();
+        var alertResponses = alertRepository.findSummariesWithHighReportCount(threshold).stream().map(AlertSummary::toResponse).toList();
 
         Map<String, Object> response = new HashMap<>();
         response.put("alerts", alertResponses);
@@ -68,13 +82,64 @@ public class AdminAlertController {
 
         var alert = alertRepository.findById(id).orElseThrow(() -> new RuntimeException("Alert not found"));
 
-        alert.setStatus(status);
-        if (status == AlertStatus.FOUND && alert.getFoundAt() == null) {
-            alert.setFoundAt(LocalDateTime.now());
+        var savedAlert = alertService.changeStatus(alert, status);
+
+        return ResponseEntity.ok(AlertResponse.builder().id(savedAlert.getId()).title(savedAlert.getTitle()).description(savedAlert.getDescription()).location(savedAlert.getLocation()).imageUrl(savedAlert.getImageUrl()).status(savedAlert.getStatus()).reportCount(savedAlert.getReportCount()).createdAt(savedAlert.getCreatedAt()).updatedAt(savedAlert.getUpdatedAt()).foundAt(savedAlert.getFoundAt()).postedBy(AlertResponse.UserInfo.builder().id(savedAlert.getPostedBy().getId()).name(savedAlert.getPostedBy().getName()).email(savedAlert.getPostedBy().getEmail()).build()).build());
+    }
+
+    @PostMapping("/search-index/rebuild")
+    @Operation(summary = "Rebuild search index", description = "Re-index every alert from the database into the full-text search index", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() throws IOException {
+        long start = System.currentTimeMillis();
+        int indexed = alertSearchService.rebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("indexedAlerts", indexed);
+        response.put("durationMs", System.currentTimeMillis() - start);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cache-stats")
+    @Operation(summary = "Get cache statistics", description = "Hit/miss counters per cache (in-process L1 and Redis L2) and the generation bumps behind alert listing invalidation", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> caches = new HashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            Map<String, Object> cacheStats = new HashMap<>();
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                CacheStats local = twoLevelCache.getLocalCache().stats();
+                Map<String, Object> localStats = new HashMap<>();
+                localStats.put("hits", local.hitCount());
+                localStats.put("misses", local.missCount());
+                localStats.put("evictions", local.evictionCount());
+                localStats.put("size", twoLevelCache.getLocalCache().estimatedSize());
+                localStats.put("hitRatio", local.hitRate());
+                localStats.put("loads", twoLevelCache.getLoads());
+                localStats.put("coalescedWaits", twoLevelCache.getCoalesced());
+                localStats.put("earlyRefreshes", twoLevelCache.getEarlyRefreshes());
+                cacheStats.put("l1", localStats);
+                cache = twoLevelCache.getRemoteCache();
+            }
+            if (cache instanceof RedisCache redisCache) {
+                CacheStatistics statistics = redisCache.getStatistics();
+                Map<String, Object> remoteStats = new HashMap<>();
+                remoteStats.put("hits", statistics.getHits());
+                remoteStats.put("misses", statistics.getMisses());
+                remoteStats.put("puts", statistics.getPuts());
+                remoteStats.put("deletes", statistics.getDeletes());
+                long lookups = statistics.getHits() + statistics.getMisses();
+                remoteStats.put("hitRatio", lookups == 0 ? 0.0 : (double) statistics.getHits() / lookups);
+                cacheStats.put("l2", remoteStats);
+            }
+            caches.put(name, cacheStats);
         }
 
-        var savedAlert = alertRepository.save(alert);
+        Map<String, Object> response = new HashMap<>();
+        response.put("caches", caches);
+        response.put("alertListGenerations", cacheGenerations.getStats());
+        response.put("responses", responseCache.getStats());
 
-        return ResponseEntity.ok(AlertResponse.builder().id(savedAlert.getId()).title(savedAlert.getTitle()).description(savedAlert.getDescription()).location(savedAlert.getLocation()).imageUrl(savedAlert.getImageUrl()).status(savedAlert.getStatus()).reportCount(savedAlert.getReportCount()).createdAt(savedAlert.getCreatedAt()).updatedAt(savedAlert.getUpdatedAt()).foundAt(savedAlert.getFoundAt()).postedBy(AlertResponse.UserInfo.builder().id(savedAlert.getPostedBy().getId()).name(savedAlert.getPostedBy().getName()).email(savedAlert.getPostedBy().getEmail()).build()).build());
+        return ResponseEntity.ok(response);
     }
 }
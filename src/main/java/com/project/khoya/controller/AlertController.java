@@ -4,7 +4,9 @@ import com.project.khoya.config.CustomUserDetails;
 import com.project.khoya.dto.*;
 import com.project.khoya.entity.AlertStatus;
 import com.project.khoya.entity.Role;
+import com.project.khoya.service.AlertGeoService;
 import com.project.khoya.service.AlertService;
+import com.project.khoya.service.Image.SimilarityQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +17,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,9 +27,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/alerts")
@@ -36,6 +41,7 @@ import java.util.Map;
 public class AlertController {
 
     private final AlertService alertService;
+    private final AlertGeoService alertGeoService;
 
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -48,15 +54,29 @@ public class AlertController {
 
                                          @Parameter(description = "Location where person was last seen", required = true) @RequestParam("location") String location,
 
+                                         @Parameter(description = "Latitude of the last known location; geocoded from location when omitted", example = "18.5204") @RequestParam(value = "latitude", required = false) Double latitude,
+
+                                         @Parameter(description = "Longitude of the last known location; geocoded from location when omitted", example = "73.8567") @RequestParam(value = "longitude", required = false) Double longitude,
+
                                          @Parameter(description = "Image of the missing person") @RequestParam(value = "image", required = false) MultipartFile image,
 
                                          @AuthenticationPrincipal CustomUserDetails userDetails) {
 
+        String coordinateError = validateCoordinates(latitude, longitude);
+        if (coordinateError != null) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", coordinateError);
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
         try {
             CreateAlertRequest request = new CreateAlertRequest();
             request.setTitle(title);
             request.setDescription(description);
             request.setLocation(location);
+            request.setLatitude(latitude);
+            request.setLongitude(longitude);
 
             SimpleAlertResponse response = alertService.createAlert(request, image, userDetails.getUser().getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -81,10 +101,113 @@ public class AlertController {
 
                                                           @Parameter(description = "Filter by alert status") @RequestParam(required = false) AlertStatus status) {
 
-        AlertListResponse response = alertService.getAllAlerts(page, size, location, status);
+        AlertListParams params = AlertListParams.of(page, size, location, status, null);
+        AlertListResponse response = alertService.getAllAlerts(params.page(), params.size(), params.location(), params.status());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/feed")
+    @Operation(summary = "Get alerts by cursor", description = "Newest-first alert feed for infinite scroll. Pass the nextCursor of the previous response to continue; no total counts are returned")
+    @ApiResponse(responseCode = "200", description = "Alerts retrieved successfully", content = @Content(schema = @Schema(implementation = AlertSliceResponse.class)))
+    public ResponseEntity<AlertSliceResponse> getAlertFeed(@Parameter(description = "Opaque cursor from the previous response") @RequestParam(required = false) String cursor,
+
+                                                           @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
+
+                                                           @Parameter(description = "Filter by location (case-insensitive search)", example = "New York") @RequestParam(required = false) String location,
+
+                                                           @Parameter(description = "Filter by alert status") @RequestParam(required = false) AlertStatus status) {
+
+        AlertSliceResponse response = alertService.getAlertsByCursor(cursor, Math.min(Math.max(size, 1), 100), location, status);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/nearby")
+    @Operation(summary = "Get alerts near a point", description = "Alerts within a radius of the given coordinates, nearest first (or newest first with sort=recent)")
+    public ResponseEntity<?> getNearbyAlerts(@Parameter(description = "Latitude of the centre", required = true, example = "18.5204") @RequestParam double latitude,
+
+                                             @Parameter(description = "Longitude of the centre", required = true, example = "73.8567") @RequestParam double longitude,
+
+                                             @Parameter(description = "Search radius in kilometres (max 500)", example = "10") @RequestParam(defaultValue = "10") double radiusKm,
+
+                                             @Parameter(description = "Alert statuses to match (default ACTIVE and UNDER_REVIEW)") @RequestParam(required = false) Set<AlertStatus> statuses,
+
+                                             @Parameter(description = "Sort order: distance or recent", example = "distance") @RequestParam(defaultValue = "distance") String sort,
+
+                                             @Parameter(description = "Maximum number of alerts (max 200)", example = "50") @RequestParam(defaultValue = "50") int limit) {
+
+        String coordinateError = validateCoordinates(latitude, longitude);
+        if (coordinateError != null || radiusKm <= 0 || radiusKm > 500) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", coordinateError != null ? coordinateError : "Radius must be greater than 0 and at most 500 km");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        return ResponseEntity.ok(alertGeoService.findNearby(latitude, longitude, radiusKm, statusesOrOpen(statuses), "recent".equalsIgnoreCase(sort), Math.min(Math.max(limit, 1), 200)));
+    }
+
+    @GetMapping("/within")
+    @Operation(summary = "Get alerts in a bounding box", description = "Alerts whose coordinates fall inside the box, newest first")
+    public ResponseEntity<?> getAlertsWithin(@Parameter(description = "Southern latitude", required = true) @RequestParam double minLat,
+
+                                             @Parameter(description = "Western longitude", required = true) @RequestParam double minLon,
+
+                                             @Parameter(description = "Northern latitude", required = true) @RequestParam double maxLat,
+
+                                             @Parameter(description = "Eastern longitude", required = true) @RequestParam double maxLon,
+
+                                             @Parameter(description = "Alert statuses to match (default ACTIVE and UNDER_REVIEW)") @RequestParam(required = false) Set<AlertStatus> statuses,
+
+                                             @Parameter(description = "Maximum number of alerts (max 200)", example = "50") @RequestParam(defaultValue = "50") int limit) {
+
+        String coordinateError = validateCoordinates(minLat, minLon);
+        if (coordinateError == null) {
+            coordinateError = validateCoordinates(maxLat, maxLon);
+        }
+        if (coordinateError != null || minLat > maxLat || minLon > maxLon) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", coordinateError != null ? coordinateError : "Box minimums must not exceed its maximums");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        return ResponseEntity.ok(alertGeoService.findWithin(minLat, minLon, maxLat, maxLon, statusesOrOpen(statuses), Math.min(Math.max(limit, 1), 200)));
+    }
+
+    @GetMapping("/clusters")
+    @Operation(summary = "Get alert clusters for a map viewport", description = "Active alerts aggregated into grid clusters (count, centroid, newest alert ids) sized for the zoom level. Clusters are returned for whole grid tiles covering the box")
+    @ApiResponse(responseCode = "200", description = "Clusters computed successfully", content = @Content(schema = @Schema(implementation = AlertClusterResponse.class)))
+    public ResponseEntity<?> getAlertClusters(@Parameter(description = "Southern latitude", required = true) @RequestParam double minLat,
+
+                                              @Parameter(description = "Western longitude", required = true) @RequestParam double minLon,
+
+                                              @Parameter(description = "Northern latitude", required = true) @RequestParam double maxLat,
+
+                                              @Parameter(description = "Eastern longitude", required = true) @RequestParam double maxLon,
+
+                                              @Parameter(description = "Map zoom level (0-20)", required = true, example = "11") @RequestParam int zoom) {
+
+        String coordinateError = validateCoordinates(minLat, minLon);
+        if (coordinateError == null) {
+            coordinateError = validateCoordinates(maxLat, maxLon);
+        }
+        if (coordinateError != null || minLat > maxLat || minLon > maxLon) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", coordinateError != null ? coordinateError : "Box minimums must not exceed its maximums");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        try {
+            return ResponseEntity.ok(alertGeoService.findClusters(minLat, minLon, maxLat, maxLon, zoom));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get alert by ID", description = "Get detailed information about a specific alert")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Alert found", content = @Content(schema = @Schema(implementation = AlertResponse.class))), @ApiResponse(responseCode = "404", description = "Alert not found")})
@@ -106,17 +229,31 @@ public class AlertController {
 
                                          @Parameter(description = "Location where person was last seen") @RequestParam(value = "location", required = false) String location,
 
+                                         @Parameter(description = "Latitude of the last known location") @RequestParam(value = "latitude", required = false) Double latitude,
+
+                                         @Parameter(description = "Longitude of the last known location") @RequestParam(value = "longitude", required = false) Double longitude,
+
                                          @Parameter(description = "Alert status") @RequestParam(value = "status", required = false) AlertStatus status,
 
                                          @Parameter(description = "New image of the missing person") @RequestParam(value = "image", required = false) MultipartFile image,
 
                                          @AuthenticationPrincipal CustomUserDetails userDetails) {
 
+        String coordinateError = validateCoordinates(latitude, longitude);
+        if (coordinateError != null) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", coordinateError);
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
         try {
             UpdateAlertRequest request = new UpdateAlertRequest();
             request.setTitle(title);
             request.setDescription(description);
             request.setLocation(location);
+            request.setLatitude(latitude);
+            request.setLongitude(longitude);
             request.setStatus(status);
 
             AlertResponse response = alertService.updateAlert(id, request, image, userDetails.getUser().getId());
@@ -193,7 +330,21 @@ public class AlertController {
 
                                                @Parameter(description = "Number of top similar results to return", example = "10") @RequestParam(defaultValue = "10") int topK,
 
-                                               @Parameter(description = "Minimum similarity threshold (0.0 to 1.0). Higher values return only very similar matches.", example = "0.5") @RequestParam(defaultValue = "0.5") double threshold) {
+                                               @Parameter(description = "Minimum similarity threshold (0.0 to 1.0). Higher values return only very similar matches.", example = "0.5") @RequestParam(defaultValue = "0.5") double threshold,
+
+                                               @Parameter(description = "Only alerts whose location contains this text (case-insensitive)", example = "Pune") @RequestParam(required = false) String location,
+
+                                               @Parameter(description = "Only alerts created at or after this time (ISO-8601)", example = "2025-01-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+
+                                               @Parameter(description = "Only alerts created at or before this time (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+
+                                               @Parameter(description = "Alert statuses to match (default ACTIVE)") @RequestParam(required = false) Set<AlertStatus> statuses,
+
+                                               @Parameter(description = "Latitude of the radius filter centre", example = "18.5204") @RequestParam(required = false) Double latitude,
+
+                                               @Parameter(description = "Longitude of the radius filter centre", example = "73.8567") @RequestParam(required = false) Double longitude,
+
+                                               @Parameter(description = "Only alerts within this many kilometres of the centre", example = "25") @RequestParam(required = false) Double radiusKm) {
 
         try {
             if (image == null || image.isEmpty()) {
@@ -203,6 +354,20 @@ public class AlertController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
+            if (!alertService.isSimilaritySearchReady()) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "Similarity search is starting up, please retry shortly");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+            }
+
+            if ((latitude != null || longitude != null || radiusKm != null) && (latitude == null || longitude == null || radiusKm == null || radiusKm <= 0)) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "latitude, longitude and a positive radiusKm must be given together");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
             if (threshold < 0.0 || threshold > 1.0) {
                 Map<String, String> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
@@ -210,7 +375,8 @@ public class AlertController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
-            List<SimilarAlertResponse> similarAlerts = alertService.findSimilarAlerts(image, topK, threshold);
+            SimilarityQuery query = SimilarityQuery.builder().topK(topK).threshold(threshold).location(location).createdAfter(createdAfter).createdBefore(createdBefore).statuses(statuses).latitude(latitude).longitude(longitude).radiusKm(radiusKm).build();
+            List<SimilarAlertResponse> similarAlerts = alertService.findSimilarAlerts(image, query);
 
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
@@ -233,6 +399,14 @@ public class AlertController {
         }
     }
 
+    @GetMapping("/search/similar/status")
+    @Operation(summary = "Similarity search readiness", description = "Whether the feature extraction model has loaded and warmed up, with predictor pool and index sizes")
+    @ApiResponse(responseCode = "200", description = "Status retrieved")
+    public ResponseEntity<Map<String, Object>> getSimilaritySearchStatus() {
+        Map<String, Object> status = alertService.getSimilaritySearchStatus();
+        return alertService.isSimilaritySearchReady() ? ResponseEntity.ok(status) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(status);
+    }
+
     @PostMapping(value = "/search/similar/quick", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Quick similarity search with default settings", description = "Simplified endpoint for finding similar alerts with default threshold (60%) and top 5 results")
     @ApiResponse(responseCode = "200", description = "Similar alerts found")
@@ -240,6 +414,13 @@ public class AlertController {
     public ResponseEntity<?> findSimilarAlertsQuick(@Parameter(description = "Image to search for", required = true) @RequestParam("image") MultipartFile image) {
 
         try {
+            if (!alertService.isSimilaritySearchReady()) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "Similarity search is starting up, please retry shortly");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+            }
+
             List<SimilarAlertResponse> similarAlerts = alertService.findSimilarAlerts(image, 5, 0.6);
 
             Map<String, Object> response = new HashMap<>();
@@ -258,4 +439,17 @@ public class AlertController {
         }
     }
 
-}
\ No newline at end of file
+    private static String validateCoordinates(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            return "Latitude and longitude must be given together";
+        }
+        if (latitude != null && (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)) {
+            return "Latitude must be between -90 and 90 and longitude between -180 and 180";
+        }
+        return null;
+    }
+
+    private static Set<AlertStatus> statusesOrOpen(Set<AlertStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? Set.of(AlertStatus.ACTIVE, AlertStatus.UNDER_REVIEW) : statuses;
+    }
+}
@@ -1,8 +1,10 @@
 package com.project.khoya.controller;
 
 import com.project.khoya.config.CustomUserDetails;
+import com.project.khoya.dto.AlertListParams;
 import com.project.khoya.dto.EnhancedAlertListResponse;
 import com.project.khoya.dto.EnhancedAlertResponse;
+import com.project.khoya.dto.EnhancedAlertSliceResponse;
 import com.project.khoya.entity.AlertStatus;
 import com.project.khoya.service.EnhancedAlertService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/alerts-social")
 @RequiredArgsConstructor
@@ -40,11 +44,60 @@ public class EnhancedAlertController {
                                                                              @AuthenticationPrincipal CustomUserDetails userDetails) {
 
         Long currentUserId = userDetails != null ? userDetails.getUser().getId() : null;
-        EnhancedAlertListResponse response = enhancedAlertService.getAlertsWithSocialData(page, size, location, status, sortBy, currentUserId);
+        AlertListParams params = AlertListParams.of(page, size, location, status, sortBy);
+        EnhancedAlertListResponse response = enhancedAlertService.getAlertsWithSocialData(params.page(), params.size(), params.location(), params.status(), params.sortBy(), currentUserId);
 
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/feed")
+    @Operation(summary = "Get alerts with social data by cursor", description = "Alert feed with social data for infinite scroll. Pass the nextCursor of the previous response (with the same sortBy) to continue; no total counts are returned")
+    @ApiResponse(responseCode = "200", description = "Alerts retrieved successfully", content = @Content(schema = @Schema(implementation = EnhancedAlertSliceResponse.class)))
+    public ResponseEntity<EnhancedAlertSliceResponse> getAlertFeed(@Parameter(description = "Opaque cursor from the previous response") @RequestParam(required = false) String cursor,
+
+                                                                   @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
+
+                                                                   @Parameter(description = "Filter by location (case-insensitive search)", example = "New York") @RequestParam(required = false) String location,
+
+                                                                   @Parameter(description = "Filter by alert status") @RequestParam(required = false) AlertStatus status,
+
+                                                                   @Parameter(description = "Sort by: recent, score, comments, engagement, oldest", example = "recent") @RequestParam(defaultValue = "recent") String sortBy,
+
+                                                                   @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long currentUserId = userDetails != null ? userDetails.getUser().getId() : null;
+        EnhancedAlertSliceResponse response = enhancedAlertService.getAlertsWithSocialDataByCursor(cursor, Math.min(Math.max(size, 1), 100), location, status, sortBy, currentUserId);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending alerts", description = "Get the alerts with the most recent engagement, optionally within one location")
+    public ResponseEntity<List<EnhancedAlertResponse>> getTrendingAlerts(@Parameter(description = "Number of alerts", example = "10") @RequestParam(defaultValue = "10") int limit,
+
+                                                                         @Parameter(description = "Restrict to a location (exact, case-insensitive)", example = "New York") @RequestParam(required = false) String location,
+
+                                                                         @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long currentUserId = userDetails != null ? userDetails.getUser().getId() : null;
+        return ResponseEntity.ok(enhancedAlertService.getTrendingAlerts(Math.min(Math.max(limit, 1), 100), location, currentUserId));
+    }
+
+    @GetMapping("/top-rated")
+    @Operation(summary = "Get top-rated alerts", description = "Get the alerts with the highest vote score")
+    public ResponseEntity<List<EnhancedAlertResponse>> getTopRatedAlerts(@Parameter(description = "Number of alerts", example = "10") @RequestParam(defaultValue = "10") int limit, @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long currentUserId = userDetails != null ? userDetails.getUser().getId() : null;
+        return ResponseEntity.ok(enhancedAlertService.getTopRatedAlerts(Math.min(Math.max(limit, 1), 100), currentUserId));
+    }
+
+    @GetMapping("/most-commented")
+    @Operation(summary = "Get most-commented alerts", description = "Get the alerts with the most active comments")
+    public ResponseEntity<List<EnhancedAlertResponse>> getMostCommentedAlerts(@Parameter(description = "Number of alerts", example = "10") @RequestParam(defaultValue = "10") int limit, @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Long currentUserId = userDetails != null ? userDetails.getUser().getId() : null;
+        return ResponseEntity.ok(enhancedAlertService.getMostCommentedAlerts(Math.min(Math.max(limit, 1), 100), currentUserId));
+    }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get alert with social data", description = "Get detailed information about a specific alert including social interaction data")
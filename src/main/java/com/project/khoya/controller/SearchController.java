@@ -2,12 +2,16 @@ package com.project.khoya.controller;
 
 
 import com.project.khoya.dto.AlertResponse;
-import com.project.khoya.entity.MissingAlert;
+import com.project.khoya.dto.AlertSearchResponse;
+import com.project.khoya.dto.AlertSummary;
+import com.project.khoya.entity.AlertStatus;
 import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.service.AlertSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -25,15 +29,31 @@ import java.util.stream.Collectors;
 public class SearchController {
 
     private final MissingAlertRepository alertRepository;
+    private final AlertSearchService alertSearchService;
+
+    @GetMapping("/text")
+    @Operation(summary = "Full-text search", description = "Relevance-ranked keyword search over alert title, description and location. Supports quoted phrases, + / - / | operators and trailing * prefixes.")
+    public ResponseEntity<AlertSearchResponse> searchText(@Parameter(description = "Search text; blank returns the newest alerts matching the filters", example = "red jacket pune") @RequestParam(required = false) String q,
+
+                                                          @Parameter(description = "Filter by alert status") @RequestParam(required = false) AlertStatus status,
+
+                                                          @Parameter(description = "Only alerts created at or after this time (ISO-8601)", example = "2025-01-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+                                                          @Parameter(description = "Only alerts created at or before this time (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+                                                          @Parameter(description = "Page number (0-based)", example = "0") @RequestParam(defaultValue = "0") int page,
+
+                                                          @Parameter(description = "Page size (max 100)", example = "20") @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(alertSearchService.search(q, status, from, to, Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+    }
 
     @GetMapping("/recent")
     @Operation(summary = "Get recent alerts", description = "Get alerts from the last specified number of days")
     public ResponseEntity<List<AlertResponse>> getRecentAlerts(@Parameter(description = "Number of days to look back", example = "7") @RequestParam(defaultValue = "7") int days) {
 
         LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<MissingAlert> alerts = alertRepository.findRecentAlerts(since);
-
-        List<AlertResponse> response = alerts.stream().map(this::mapToAlertResponse).collect(Collectors.toList());
+        List<AlertResponse> response = alertRepository.findRecentSummaries(since).stream().map(AlertSummary::toResponse).collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
     }
@@ -41,16 +61,10 @@ public class SearchController {
     @GetMapping("/active")
     @Operation(summary = "Get active alerts", description = "Get all currently active alerts (not found or closed)")
     public ResponseEntity<List<AlertResponse>> getActiveAlerts() {
-        List<MissingAlert> alerts = alertRepository.findActiveAlerts();
-
-        List<AlertResponse> response = alerts.stream().map(this::mapToAlertResponse).collect(Collectors.toList());
+        List<AlertResponse> response = alertRepository.findActiveSummaries().stream().map(AlertSummary::toResponse).collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
     }
-
-    private AlertResponse mapToAlertResponse(MissingAlert alert) {
-        return AlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).imageUrl(alert.getImageUrl()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).updatedAt(alert.getUpdatedAt()).foundAt(alert.getFoundAt()).postedBy(AlertResponse.UserInfo.builder().id(alert.getPostedBy().getId()).name(alert.getPostedBy().getName()).email(alert.getPostedBy().getEmail()).build()).build();
-    }
 }
 
 
@@ -109,6 +109,15 @@ public class SocialInteractionController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/alerts/{alertId}/share")
+    @Operation(summary = "Record alert share", description = "Record that an alert was shared; shares feed the trending ranking, counted once per user and alert per trending window", security = @SecurityRequirement(name = "bearerAuth"))
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> shareAlert(@Parameter(description = "Alert ID", required = true) @PathVariable Long alertId, @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Map<String, Object> response = socialService.recordShare(alertId, userDetails.getUser().getId());
+        return ResponseEntity.ok(response);
+    }
+
     // PUBLIC VOTE COUNT ENDPOINTS
 
     @GetMapping("/alerts/{alertId}/votes")
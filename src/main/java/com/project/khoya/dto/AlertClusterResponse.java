@@ -0,0 +1,50 @@
+package com.project.khoya.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Pre-aggregated alert clusters for a map viewport")
+public class AlertClusterResponse {
+
+    @Schema(description = "Map zoom level the clusters were built for", example = "11")
+    private int zoom;
+
+    @Schema(description = "Geohash precision of the cluster grid", example = "6")
+    private int precision;
+
+    @Schema(description = "Total alerts across the returned clusters")
+    private long totalAlerts;
+
+    @Schema(description = "Clusters of the grid tiles covering the viewport")
+    private List<Cluster> clusters;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cluster {
+        @Schema(description = "Geohash of the grid cell", example = "tek9wx")
+        private String cell;
+
+        @Schema(description = "Number of active alerts in the cell", example = "12")
+        private int count;
+
+        @Schema(description = "Mean latitude of the alerts in the cell")
+        private double latitude;
+
+        @Schema(description = "Mean longitude of the alerts in the cell")
+        private double longitude;
+
+        @Schema(description = "Ids of the newest alerts in the cell")
+        private List<Long> alertIds;
+    }
+}
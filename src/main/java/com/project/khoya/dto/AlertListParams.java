@@ -0,0 +1,24 @@
+package com.project.khoya.dto;
+
+import com.project.khoya.entity.AlertStatus;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Listing parameters after the same normalization the controllers and the response cache apply, so equal
+ * requests always map to one cache key: page at least 0, size clamped to 1..100, location trimmed and
+ * lower-cased (blank = no filter), unknown sort orders fall back to "recent".
+ */
+public record AlertListParams(int page, int size, String location, AlertStatus status, String sortBy) {
+
+    public static final int MAX_SIZE = 100;
+    public static final String DEFAULT_SORT = "recent";
+    private static final Set<String> SORT_ORDERS = Set.of("recent", "score", "comments", "engagement", "oldest");
+
+    public static AlertListParams of(int page, int size, String location, AlertStatus status, String sortBy) {
+        String trimmed = location == null ? null : location.trim().toLowerCase(Locale.ROOT);
+        String sort = sortBy == null ? DEFAULT_SORT : sortBy.trim().toLowerCase(Locale.ROOT);
+        return new AlertListParams(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SIZE), trimmed == null || trimmed.isEmpty() ? null : trimmed, status, SORT_ORDERS.contains(sort) ? sort : DEFAULT_SORT);
+    }
+}
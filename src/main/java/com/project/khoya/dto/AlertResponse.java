@@ -31,6 +31,12 @@ public class AlertResponse {
     @Schema(description = "Last known location")
     private String location;
 
+    @Schema(description = "Latitude of the last known location", example = "18.5204")
+    private Double latitude;
+
+    @Schema(description = "Longitude of the last known location", example = "73.8567")
+    private Double longitude;
+
     @Schema(description = "Photo URL")
     private String imageUrl;
 
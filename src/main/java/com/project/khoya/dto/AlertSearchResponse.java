@@ -0,0 +1,29 @@
+package com.project.khoya.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Full-text alert search results, most relevant first")
+public class AlertSearchResponse {
+
+    @Schema(description = "Matching alerts for the requested page")
+    private List<AlertResponse> alerts;
+
+    @Schema(description = "Total number of matching alerts")
+    private long totalHits;
+
+    @Schema(description = "Current page number (0-based)")
+    private int page;
+
+    @Schema(description = "Number of items per page")
+    private int size;
+}
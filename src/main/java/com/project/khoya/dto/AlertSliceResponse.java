@@ -0,0 +1,31 @@
+package com.project.khoya.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cursor-paginated alert list response (no total counts)")
+public class AlertSliceResponse {
+
+    @Schema(description = "List of alerts")
+    private List<AlertResponse> alerts;
+
+    @Schema(description = "Number of items requested")
+    private int size;
+
+    @Schema(description = "Whether more alerts follow")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor for the next slice; absent on the last slice")
+    private String nextCursor;
+}
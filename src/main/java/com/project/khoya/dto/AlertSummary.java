@@ -0,0 +1,18 @@
+package com.project.khoya.dto;
+
+import com.project.khoya.entity.AlertStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for alert list queries, selected with a JPQL constructor expression in one join with the author,
+ * so lists never hydrate MissingAlert entities or touch the lazy postedBy association.
+ */
+public record AlertSummary(Long id, String title, String description, String location, Double latitude, Double longitude, String imageUrl, AlertStatus status,
+                           int reportCount, LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime foundAt,
+                           Long postedById, String postedByName, String postedByEmail) {
+
+    public AlertResponse toResponse() {
+        return AlertResponse.builder().id(id).title(title).description(description).location(location).latitude(latitude).longitude(longitude).imageUrl(imageUrl).status(status).reportCount(reportCount).createdAt(createdAt).updatedAt(updatedAt).foundAt(foundAt).postedBy(AlertResponse.UserInfo.builder().id(postedById).name(postedByName).email(postedByEmail).build()).build();
+    }
+}
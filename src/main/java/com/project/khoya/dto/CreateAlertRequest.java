@@ -3,6 +3,8 @@ package com.project.khoya.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -25,4 +27,14 @@ public class CreateAlertRequest {
 
     @Schema(description = "URL to person's photo", example = "https://example.com/photo.jpg")
     private String imageUrl;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    @Schema(description = "Latitude of the last known location; geocoded from location when omitted", example = "18.5204")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    @Schema(description = "Longitude of the last known location; geocoded from location when omitted", example = "73.8567")
+    private Double longitude;
 }
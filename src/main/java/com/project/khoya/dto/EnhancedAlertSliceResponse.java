@@ -0,0 +1,34 @@
+package com.project.khoya.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cursor-paginated alert list response with social data (no total counts)")
+public class EnhancedAlertSliceResponse {
+
+    @Schema(description = "List of enhanced alerts with social data")
+    private List<EnhancedAlertResponse> alerts;
+
+    @Schema(description = "Number of items requested")
+    private int size;
+
+    @Schema(description = "Whether more alerts follow")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor for the next slice; absent on the last slice")
+    private String nextCursor;
+
+    @Schema(description = "Current sort order")
+    private String sortBy;
+}
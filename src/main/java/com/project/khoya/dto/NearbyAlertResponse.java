@@ -0,0 +1,23 @@
+package com.project.khoya.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Alert with its distance from the query point")
+public class NearbyAlertResponse {
+
+    @Schema(description = "The alert")
+    private AlertResponse alert;
+
+    @Schema(description = "Great-circle distance from the query point in kilometres; absent for bounding-box queries", example = "2.4")
+    private Double distanceKm;
+}
@@ -2,6 +2,8 @@ package com.project.khoya.dto;
 
 import com.project.khoya.entity.AlertStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -24,6 +26,16 @@ public class UpdateAlertRequest {
     @Schema(description = "URL to person's photo")
     private String imageUrl;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    @Schema(description = "Latitude of the last known location")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    @Schema(description = "Longitude of the last known location")
+    private Double longitude;
+
     @Schema(description = "Alert status")
     private AlertStatus status;
 }
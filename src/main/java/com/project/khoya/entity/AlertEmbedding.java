@@ -0,0 +1,41 @@
+package com.project.khoya.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image embedding of an alert, kept out of missing_alerts so feed and search queries never load the vector.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "alert_embeddings", indexes = @Index(name = "idx_alert_embeddings_model_version", columnList = "model_version"))
+public class AlertEmbedding {
+
+    // Same id as the MissingAlert
+    @Id
+    @Column(name = "alert_id")
+    private Long alertId;
+
+    @Lob
+    @Column(columnDefinition = "BLOB", nullable = false)
+    private byte[] embedding;
+
+    // Model that produced the vector; vectors from other versions are not comparable
+    @Column(name = "model_version", nullable = false, length = 64)
+    private String modelVersion;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -16,7 +16,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "missing_alerts")
+@Table(name = "missing_alerts", indexes = @Index(name = "idx_missing_alerts_geohash", columnList = "geohash"))
 @EntityListeners(AuditingEntityListener.class)
 public class MissingAlert {
 
@@ -32,6 +32,14 @@ public class MissingAlert {
 
     private String location;
 
+    // Geocoded from the location text via the gazetteer, or supplied by the client
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(length = 12)
+    private String geohash;
+
     private String imageUrl;
 
     @Enumerated(EnumType.STRING)
@@ -92,9 +100,7 @@ public class MissingAlert {
     @OneToMany(mappedBy = "alert", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Vote> votes = new ArrayList<>();
 
-    @Lob
-    @Column(columnDefinition = "BLOB")
-    private byte[] imageEmbedding;
+    // The image embedding lives in alert_embeddings (AlertEmbedding)
 
 
     public boolean isFlagged() {
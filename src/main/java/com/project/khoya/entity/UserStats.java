@@ -0,0 +1,41 @@
+package com.project.khoya.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user counters maintained incrementally on vote, alert and comment writes (see UserStatsService).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_stats")
+public class UserStats {
+
+    // Same id as the User
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Sum of upvotes minus downvotes over the user's alerts
+    @Column(nullable = false)
+    private int reputation;
+
+    @Column(name = "alert_count", nullable = false)
+    private int alertCount;
+
+    @Column(name = "found_count", nullable = false)
+    private int foundCount;
+
+    // Active comments written by the user
+    @Column(name = "comment_count", nullable = false)
+    private int commentCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,52 +1,137 @@
 package com.project.khoya.messaging;
 
 import ai.djl.modality.cv.Image;
-import ai.djl.modality.cv.ImageFactory;
 import com.project.khoya.dto.FeatureExtractionMessage;
+import com.project.khoya.entity.AlertEmbedding;
 import com.project.khoya.entity.MissingAlert;
 import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.service.Image.AlertAttributes;
+import com.project.khoya.service.Image.AlertEmbeddingService;
 import com.project.khoya.service.Image.FeatureExtractionService;
+import com.project.khoya.service.Image.ImagePreprocessor;
+import com.project.khoya.service.Image.ImageSpool;
+import com.project.khoya.service.Image.SimilarityIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FeatureExtractionConsumer {
 
+    private static final String LISTENER_ID = "featureExtraction";
+
     private final FeatureExtractionService featureExtractionService;
     private final MissingAlertRepository alertRepository;
+    private final SimilarityIndexService similarityIndexService;
+    private final AlertEmbeddingService alertEmbeddingService;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ImageSpool imageSpool;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
 
-    @RabbitListener(queues = "${rabbitmq.queue.feature-extraction}")
-    public void consumeFeatureExtractionMessage(FeatureExtractionMessage message) {
-        log.info("Received feature extraction message for alert ID: {}", message.getAlertId());
+    /**
+     * Messages arrive in micro-batches (see RabbitMQConfig.featureExtractionListenerFactory) and go through
+     * the model in a single forward pass. The listener only starts once the model is READY (see
+     * {@link #startWhenModelReady()}), so messages published meanwhile wait in the queue.
+     */
+    @RabbitListener(id = LISTENER_ID, queues = "${rabbitmq.queue.feature-extraction}", containerFactory = "featureExtractionListenerFactory", autoStartup = "false")
+    public void consumeFeatureExtractionBatch(List<FeatureExtractionMessage> messages) {
+        if (!featureExtractionService.isModelLoaded()) {
+            // Failing the batch nacks it, so the messages are requeued instead of acked unprocessed
+            throw new IllegalStateException("Feature extraction model not ready (" + featureExtractionService.getModelState() + ")");
+        }
+        log.info("Received feature extraction batch of {} messages", messages.size());
 
-        try {
-            MissingAlert alert = alertRepository.findById(message.getAlertId()).orElse(null);
+        Map<Long, MissingAlert> alertsById = alertRepository.findAllById(messages.stream().map(FeatureExtractionMessage::getAlertId).toList()).stream().collect(Collectors.toMap(MissingAlert::getId, Function.identity()));
+
+        List<MissingAlert> alerts = new ArrayList<>();
+        List<Image> images = new ArrayList<>();
+        for (FeatureExtractionMessage message : messages) {
+            MissingAlert alert = alertsById.get(message.getAlertId());
 
             if (alert == null) {
                 log.error("Alert not found with ID: {}", message.getAlertId());
-                return;
+                continue;
             }
 
             if (message.getImageUrl() == null || message.getImageUrl().isEmpty()) {
                 log.warn("No image URL for alert ID {}. Skipping feature extraction.", alert.getId());
-                return;
+                continue;
             }
 
-            // Download image from Cloudinary and extract features
-            Image image = ImageFactory.getInstance().fromUrl(message.getImageUrl());
-            byte[] embedding = featureExtractionService.extractFeaturesAsBytes(image);
-
-            alert.setImageEmbedding(embedding);
-            alertRepository.save(alert);
+            try {
+                Optional<byte[]> spooled = imageSpool.read(alert.getId());
+                if (spooled.isPresent()) {
+                    images.add(imagePreprocessor.decode(spooled.get()));
+                } else {
+                    // Spool gone (other node, evicted or restarted): download image from Cloudinary
+                    try (InputStream input = new URL(message.getImageUrl()).openStream()) {
+                        images.add(imagePreprocessor.decode(input));
+                    }
+                }
+                alerts.add(alert);
+            } catch (Exception e) {
+                log.error("Failed to load image for alert ID {}: {}", alert.getId(), e.getMessage(), e);
+            }
+        }
 
-            log.info("Successfully extracted and saved features for alert ID: {} (size: {} bytes)", alert.getId(), embedding.length);
+        if (images.isEmpty()) {
+            return;
+        }
 
+        List<float[]> features;
+        try {
+            features = featureExtractionService.extractFeatures(images);
         } catch (Exception e) {
-            log.error("Failed to extract features for alert ID {}: {}", message.getAlertId(), e.getMessage(), e);
+            // One bad image fails the whole forward pass; retry individually so the rest still get indexed
+            log.warn("Batch feature extraction failed ({}), retrying {} images one by one", e.getMessage(), images.size());
+            features = null;
         }
+
+        for (int i = 0; i < alerts.size(); i++) {
+            MissingAlert alert = alerts.get(i);
+            try {
+                float[] alertFeatures = features != null ? features.get(i) : featureExtractionService.extractFeatures(images.get(i));
+                saveFeatures(alert, alertFeatures);
+                imageSpool.delete(alert.getId());
+            } catch (Exception e) {
+                log.error("Failed to extract features for alert ID {}: {}", alert.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Start consuming once the model has loaded. Nodes whose model is disabled or failed never consume, and
+     * leave the messages to nodes that can process them.
+     */
+    @Scheduled(fixedDelayString = "${rabbitmq.feature-extraction.start-check-ms:5000}")
+    public void startWhenModelReady() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && !container.isRunning() && featureExtractionService.isModelLoaded()) {
+            container.start();
+            log.info("Feature extraction model ready, consuming extraction messages");
+        }
+    }
+
+    private void saveFeatures(MissingAlert alert, float[] features) {
+        AlertEmbedding embedding = alertEmbeddingService.save(alert.getId(), features);
+
+        similarityIndexService.upsert(alert.getId(), features, embedding.getUpdatedAt(), AlertAttributes.of(alert));
+
+        log.info("Successfully extracted and saved features for alert ID: {} (size: {} bytes)", alert.getId(), embedding.getEmbedding().length);
     }
-}
\ No newline at end of file
+}
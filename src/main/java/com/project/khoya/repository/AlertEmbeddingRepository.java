@@ -0,0 +1,42 @@
+package com.project.khoya.repository;
+
+import com.project.khoya.entity.AlertEmbedding;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface AlertEmbeddingRepository extends JpaRepository<AlertEmbedding, Long> {
+
+    // Embedding versions and filter attributes (id, updatedAt, status, createdAt, location, latitude, longitude) after a given id, for reconciling the similarity index in batches
+    @Query("SELECT a.id, e.updatedAt, a.status, a.createdAt, a.location, a.latitude, a.longitude FROM AlertEmbedding e JOIN MissingAlert a ON a.id = e.alertId WHERE e.modelVersion = :modelVersion AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findIndexableAfterId(@Param("modelVersion") String modelVersion, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Embedding rows (alertId, embedding, updatedAt) for the given alerts
+    @Query("SELECT e.alertId, e.embedding, e.updatedAt FROM AlertEmbedding e WHERE e.alertId IN :ids")
+    List<Object[]> findVectorsByAlertIds(@Param("ids") List<Long> ids);
+
+    // One-off move of vectors from the legacy missing_alerts.image_embedding column
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO alert_embeddings (alert_id, embedding, model_version, updated_at) " +
+            "SELECT a.id, a.image_embedding, :modelVersion, NOW(6) FROM missing_alerts a " +
+            "LEFT JOIN alert_embeddings e ON e.alert_id = a.id WHERE a.image_embedding IS NOT NULL AND e.alert_id IS NULL", nativeQuery = true)
+    int backfillFromLegacyColumn(@Param("modelVersion") String modelVersion);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE missing_alerts SET image_embedding = NULL WHERE image_embedding IS NOT NULL", nativeQuery = true)
+    int clearLegacyColumn();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AlertEmbedding e WHERE NOT EXISTS (SELECT 1 FROM MissingAlert a WHERE a.id = e.alertId)")
+    int deleteOrphans();
+}
@@ -0,0 +1,64 @@
+package com.project.khoya.repository;
+
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.MissingAlert;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Criteria for alert feeds, matching the derived findByLocationContainingIgnoreCase/findByStatus queries.
+ */
+public final class AlertSpecifications {
+
+    // Not backslash: MySQL treats it as an escape inside string literals too
+    public static final char ESCAPE = '!';
+
+    private AlertSpecifications() {
+    }
+
+    public static Specification<MissingAlert> matching(String location, AlertStatus status) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            String pattern = containsPattern(location);
+            if (pattern != null) {
+                predicates.add(cb.like(cb.lower(root.get("location")), pattern, ESCAPE));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Fetch-joins the poster, so feed pages map {@code postedBy} without one extra query per alert.
+     * Skipped for count queries, where a fetch join is not allowed.
+     */
+    public static Specification<MissingAlert> fetchPostedBy() {
+        return (root, query, cb) -> {
+            if (query != null && query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("postedBy", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Lower-case LIKE pattern (escape character '!') for a case-insensitive "contains" match; null for a blank location.
+     */
+    public static String containsPattern(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            return null;
+        }
+        return "%" + escapeLike(location.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -28,6 +28,22 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Count comments for an alert
     long countByAlertIdAndStatus(Long alertId, CommentStatus status);
 
+    // Count comments for multiple alerts (for performance)
+    @Query("SELECT c.alert.id, COUNT(c) FROM Comment c WHERE c.alert.id IN :alertIds AND c.status = :status GROUP BY c.alert.id")
+    List<Object[]> countByAlertIdsAndStatus(@Param("alertIds") List<Long> alertIds, @Param("status") CommentStatus status);
+
+    // Count comments of every alert (leaderboard consistency check)
+    @Query("SELECT c.alert.id, COUNT(c) FROM Comment c WHERE c.status = :status GROUP BY c.alert.id")
+    List<Object[]> countAllByAlertAndStatus(@Param("status") CommentStatus status);
+
+    // Comments posted since a point in time (alertId, location, createdAt), for warming up trending counters
+    @Query("SELECT c.alert.id, c.alert.location, c.createdAt FROM Comment c WHERE c.status = :status AND c.createdAt >= :since")
+    List<Object[]> findAlertCommentsSince(@Param("since") LocalDateTime since, @Param("status") CommentStatus status);
+
+    // Count comments of an alert per author
+    @Query("SELECT c.author.id, COUNT(c) FROM Comment c WHERE c.alert.id = :alertId AND c.status = :status GROUP BY c.author.id")
+    List<Object[]> countByAuthorForAlert(@Param("alertId") Long alertId, @Param("status") CommentStatus status);
+
     // Find comments by user
     Page<Comment> findByAuthorIdAndStatusOrderByCreatedAtDesc(Long userId, CommentStatus status, Pageable pageable);
 
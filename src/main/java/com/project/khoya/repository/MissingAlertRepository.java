@@ -1,19 +1,27 @@
 package com.project.khoya.repository;
 
+import com.project.khoya.dto.AlertSummary;
 import com.project.khoya.entity.AlertStatus;
 import com.project.khoya.entity.MissingAlert;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface MissingAlertRepository extends JpaRepository<MissingAlert, Long> {
+public interface MissingAlertRepository extends JpaRepository<MissingAlert, Long>, JpaSpecificationExecutor<MissingAlert> {
+
+    String SUMMARY = "SELECT new com.project.khoya.dto.AlertSummary(a.id, a.title, a.description, a.location, a.latitude, a.longitude, a.imageUrl, a.status, a.reportCount, " +
+            "a.createdAt, a.updatedAt, a.foundAt, u.id, u.name, u.email) FROM MissingAlert a JOIN a.postedBy u ";
 
     // Find alerts by location (case-insensitive search)
     Page<MissingAlert> findByLocationContainingIgnoreCase(String location, Pageable pageable);
@@ -30,6 +38,86 @@ public interface MissingAlertRepository extends JpaRepository<MissingAlert, Long
     // Find alerts posted by specific user
     List<MissingAlert> findByPostedByIdOrderByCreatedAtDesc(Long userId);
 
+    @Query("SELECT a.id FROM MissingAlert a")
+    List<Long> findAllIds();
+
+    // Keep the denormalized vote columns in step with the votes table
+    @Modifying
+    @Query("UPDATE MissingAlert a SET a.upvotes = a.upvotes + :upvotes, a.downvotes = a.downvotes + :downvotes, a.score = a.score + :upvotes - :downvotes WHERE a.id = :id")
+    int applyVoteDelta(@Param("id") Long id, @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    @Modifying
+    @Query("UPDATE MissingAlert a SET a.commentCount = a.commentCount + :delta WHERE a.id = :id")
+    int applyCommentDelta(@Param("id") Long id, @Param("delta") int delta);
+
+    // Denormalized engagement columns of every alert: (id, upvotes, downvotes, commentCount, score)
+    @Query("SELECT a.id, a.upvotes, a.downvotes, a.commentCount, a.score FROM MissingAlert a")
+    List<Object[]> findEngagementCounts();
+
+    // Recompute the engagement columns from the votes and comments tables, touching only rows that differ
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE missing_alerts a " +
+            "LEFT JOIN (SELECT alert_id, SUM(type = 'UP') AS up, SUM(type = 'DOWN') AS down FROM votes WHERE alert_id IS NOT NULL GROUP BY alert_id) v ON v.alert_id = a.id " +
+            "LEFT JOIN (SELECT alert_id, COUNT(*) AS active FROM comments WHERE status = 'ACTIVE' GROUP BY alert_id) c ON c.alert_id = a.id " +
+            "SET a.upvotes = COALESCE(v.up, 0), a.downvotes = COALESCE(v.down, 0), a.score = COALESCE(v.up, 0) - COALESCE(v.down, 0), a.comment_count = COALESCE(c.active, 0) " +
+            "WHERE a.upvotes <> COALESCE(v.up, 0) OR a.downvotes <> COALESCE(v.down, 0) OR a.score <> COALESCE(v.up, 0) - COALESCE(v.down, 0) OR a.comment_count <> COALESCE(c.active, 0)", nativeQuery = true)
+    int backfillEngagementCounts();
+
+    // Same for the given alerts; counted inside the statement, so deltas committed meanwhile are not lost.
+    // MySQL assigns left to right, so score sees the new vote columns
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE missing_alerts a SET " +
+            "a.upvotes = (SELECT COUNT(*) FROM votes v WHERE v.alert_id = a.id AND v.type = 'UP'), " +
+            "a.downvotes = (SELECT COUNT(*) FROM votes v WHERE v.alert_id = a.id AND v.type = 'DOWN'), " +
+            "a.score = a.upvotes - a.downvotes, " +
+            "a.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.alert_id = a.id AND c.status = 'ACTIVE') " +
+            "WHERE a.id IN :ids", nativeQuery = true)
+    int recountEngagement(@Param("ids") List<Long> ids);
+
+    // List projections (one joined SELECT, no entity hydration); locationPattern comes from AlertSpecifications.containsPattern
+    @Query(value = SUMMARY + "WHERE (:locationPattern IS NULL OR LOWER(a.location) LIKE :locationPattern ESCAPE '!') AND (:status IS NULL OR a.status = :status)",
+            countQuery = "SELECT COUNT(a) FROM MissingAlert a WHERE (:locationPattern IS NULL OR LOWER(a.location) LIKE :locationPattern ESCAPE '!') AND (:status IS NULL OR a.status = :status)")
+    Page<AlertSummary> findSummaries(@Param("locationPattern") String locationPattern, @Param("status") AlertStatus status, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE u.id = :userId ORDER BY a.createdAt DESC")
+    List<AlertSummary> findSummariesByPostedBy(@Param("userId") Long userId);
+
+    @Query(SUMMARY + "WHERE a.status IN ('ACTIVE', 'UNDER_REVIEW') ORDER BY a.createdAt DESC")
+    List<AlertSummary> findActiveSummaries();
+
+    @Query(SUMMARY + "WHERE a.createdAt >= :since ORDER BY a.createdAt DESC")
+    List<AlertSummary> findRecentSummaries(@Param("since") LocalDateTime since);
+
+    @Query(SUMMARY + "WHERE a.reportCount >= :threshold ORDER BY a.reportCount DESC")
+    List<AlertSummary> findSummariesWithHighReportCount(@Param("threshold") int threshold);
+
+    // Rows for search hits; callers restore the relevance order
+    @Query(SUMMARY + "WHERE a.id IN :ids")
+    List<AlertSummary> findSummariesByIds(@Param("ids") List<Long> ids);
+
+    // Id-ordered batches for rebuilding the search index
+    @Query(SUMMARY + "WHERE a.id > :afterId ORDER BY a.id")
+    List<AlertSummary> findSummariesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Points for the in-memory geo index: (id, latitude, longitude, status, createdAt)
+    @Query("SELECT a.id, a.latitude, a.longitude, a.status, a.createdAt FROM MissingAlert a WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL")
+    List<Object[]> findGeoPoints();
+
+    // Alerts still waiting for coordinates: (id, location)
+    @Query("SELECT a.id, a.location FROM MissingAlert a WHERE a.latitude IS NULL AND a.location IS NOT NULL AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findUngeocoded(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MissingAlert a SET a.latitude = :latitude, a.longitude = :longitude, a.geohash = :geohash WHERE a.id = :id")
+    int setCoordinates(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude, @Param("geohash") String geohash);
+
+    long countByCreatedAtGreaterThanEqual(LocalDateTime since);
+
+    long countByReportCountGreaterThanEqual(int threshold);
+
     // Find active alerts (not found or closed)
     @Query("SELECT a FROM MissingAlert a WHERE a.status IN ('ACTIVE', 'UNDER_REVIEW') ORDER BY a.createdAt DESC")
     List<MissingAlert> findActiveAlerts();
@@ -54,6 +142,7 @@ public interface MissingAlertRepository extends JpaRepository<MissingAlert, Long
 
     Page<MissingAlert> findByIsFlaggedOrderByFlaggedAtDesc(boolean isFlagged, Pageable pageable);
 
+    @EntityGraph(attributePaths = "postedBy")
     @Query("SELECT a FROM MissingAlert a WHERE a.isFlagged = true ORDER BY a.flaggedAt DESC")
     Page<MissingAlert> findFlaggedAlerts(Pageable pageable);
 
@@ -0,0 +1,35 @@
+package com.project.khoya.repository;
+
+import com.project.khoya.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Atomically add deltas to a user's counters, creating the row on first use
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, reputation, alert_count, found_count, comment_count, updated_at) " +
+            "VALUES (:userId, :reputation, :alertCount, :foundCount, :commentCount, NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE reputation = reputation + VALUES(reputation), alert_count = alert_count + VALUES(alert_count), " +
+            "found_count = found_count + VALUES(found_count), comment_count = comment_count + VALUES(comment_count), updated_at = NOW(6)", nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId, @Param("reputation") int reputation, @Param("alertCount") int alertCount,
+                   @Param("foundCount") int foundCount, @Param("commentCount") int commentCount);
+
+    // Recompute every user's counters from votes, alerts and comments
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, reputation, alert_count, found_count, comment_count, updated_at) " +
+            "SELECT u.id, COALESCE(r.reputation, 0), COALESCE(a.alert_count, 0), COALESCE(a.found_count, 0), COALESCE(c.comment_count, 0), NOW(6) FROM users u " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS alert_count, SUM(status = 'FOUND') AS found_count FROM missing_alerts GROUP BY user_id) a ON a.user_id = u.id " +
+            "LEFT JOIN (SELECT ma.user_id, SUM(CASE WHEN v.type = 'UP' THEN 1 ELSE -1 END) AS reputation FROM votes v JOIN missing_alerts ma ON ma.id = v.alert_id GROUP BY ma.user_id) r ON r.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS comment_count FROM comments WHERE status = 'ACTIVE' GROUP BY user_id) c ON c.user_id = u.id " +
+            "ON DUPLICATE KEY UPDATE reputation = VALUES(reputation), alert_count = VALUES(alert_count), " +
+            "found_count = VALUES(found_count), comment_count = VALUES(comment_count), updated_at = NOW(6)", nativeQuery = true)
+    int rebuildAll();
+}
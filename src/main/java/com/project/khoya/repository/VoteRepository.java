@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -32,17 +34,25 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
 
     // Get vote counts for multiple alerts (for performance)
     @Query("SELECT v.alert.id, v.type, COUNT(v) FROM Vote v WHERE v.alert.id IN :alertIds GROUP BY v.alert.id, v.type")
-    Object[][] getVoteCountsForAlerts(@Param("alertIds") java.util.List<Long> alertIds);
+    List<Object[]> getVoteCountsForAlerts(@Param("alertIds") List<Long> alertIds);
+
+    // Get vote counts for every alert (leaderboard consistency check)
+    @Query("SELECT v.alert.id, v.type, COUNT(v) FROM Vote v WHERE v.alert IS NOT NULL GROUP BY v.alert.id, v.type")
+    List<Object[]> getVoteCountsForAllAlerts();
+
+    // Alert votes cast since a point in time (alertId, location, type, createdAt), for warming up trending counters
+    @Query("SELECT v.alert.id, v.alert.location, v.type, v.createdAt FROM Vote v WHERE v.alert IS NOT NULL AND v.createdAt >= :since")
+    List<Object[]> findAlertVotesSince(@Param("since") LocalDateTime since);
 
     // Get vote counts for multiple comments (for performance)
     @Query("SELECT v.comment.id, v.type, COUNT(v) FROM Vote v WHERE v.comment.id IN :commentIds GROUP BY v.comment.id, v.type")
-    Object[][] getVoteCountsForComments(@Param("commentIds") java.util.List<Long> commentIds);
+    List<Object[]> getVoteCountsForComments(@Param("commentIds") List<Long> commentIds);
 
     // Get user votes for multiple alerts
     @Query("SELECT v.alert.id, v.type FROM Vote v WHERE v.user.id = :userId AND v.alert.id IN :alertIds")
-    Object[][] getUserVotesForAlerts(@Param("userId") Long userId, @Param("alertIds") java.util.List<Long> alertIds);
+    List<Object[]> getUserVotesForAlerts(@Param("userId") Long userId, @Param("alertIds") List<Long> alertIds);
 
     // Get user votes for multiple comments
     @Query("SELECT v.comment.id, v.type FROM Vote v WHERE v.user.id = :userId AND v.comment.id IN :commentIds")
-    Object[][] getUserVotesForComments(@Param("userId") Long userId, @Param("commentIds") java.util.List<Long> commentIds);
+    List<Object[]> getUserVotesForComments(@Param("userId") Long userId, @Param("commentIds") List<Long> commentIds);
 }
@@ -0,0 +1,278 @@
+package com.project.khoya.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.khoya.config.TwoLevelCacheManager;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.utils.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation counters for the paged "alerts" cache, so a write invalidates only the listings it can change.
+ * <p>
+ * Each (location filter, status filter) pair that has been read gets a counter in one Redis hash, and cache
+ * keys embed it. A write to an alert bumps the counters of the pairs the alert matched before or after the
+ * change (its status, "any status", and every location filter its location contains); entries under other
+ * counters keep being served. The hash also carries a random epoch that prefixes every key, so if the
+ * hash is lost the counters restart without ever matching an older entry.
+ * <p>
+ * Reads use a local snapshot of the hash rather than a Redis round trip per request. A node reloads it after
+ * its own bumps, when another node announces a bump on the {@code cache:invalidation} channel, and at the
+ * latest once it is older than the refresh interval (the bound on staleness if a message is lost).
+ * <p>
+ * Single alerts have their own counter in a second hash (alert id to generation), cached per node the same
+ * way, for cached responses that must go stale on every write to one alert.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertCacheGenerations implements MessageListener {
+
+    private static final String HASH_KEY = "cache:alerts:generations";
+    private static final String ALERT_HASH_KEY = "cache:alert:generations";
+    private static final String EPOCH_FIELD = "_epoch";
+    private static final String ANY_STATUS = "*";
+    private static final String UNCACHED_PREFIX = "uncached:";
+    // Pseudo cache name on the invalidation channel; TwoLevelCacheManager ignores it
+    private static final String CHANNEL_NAME = "alerts-generations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Filters seen recently stay registered; idle ones expire with the hash
+    @Value("${app.cache.alerts.generation-ttl-hours:24}")
+    private long generationTtlHours;
+
+    @Value("${app.cache.alerts.generation-refresh-ms:5000}")
+    private long refreshMillis;
+
+    @Value("${app.cache.alerts.alert-generations-max-size:50000}")
+    private long alertGenerationsMaxSize;
+
+    private volatile Map<String, String> snapshot = Map.of();
+    private volatile long snapshotLoadedAt;
+    private Cache<Long, String> alertGenerations;
+    private final AtomicLong bumps = new AtomicLong();
+    private final AtomicLong bumpedWrites = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        alertGenerations = Caffeine.newBuilder().maximumSize(alertGenerationsMaxSize).expireAfterWrite(Duration.ofMillis(refreshMillis)).build();
+    }
+
+    /**
+     * Cache key for one listing page, used from {@code @Cacheable} SpEL.
+     */
+    public String key(int page, int size, String location, AlertStatus status) {
+        String field = field(normalize(location), status == null ? ANY_STATUS : status.name());
+        String suffix = page + "-" + size + "-" + location + "-" + status;
+        try {
+            Map<String, String> generations = current();
+            String epoch = generations.get(EPOCH_FIELD);
+            String generation = generations.get(field);
+            if (epoch == null || generation == null) {
+                // First read of this filter: register it so writes know to bump it
+                HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+                hash.putIfAbsent(HASH_KEY, EPOCH_FIELD, UUID.randomUUID().toString().substring(0, 8));
+                hash.putIfAbsent(HASH_KEY, field, "0");
+                redisTemplate.expire(HASH_KEY, Duration.ofHours(generationTtlHours));
+                generations = reload();
+                epoch = generations.get(EPOCH_FIELD);
+                generation = generations.get(field);
+                if (epoch == null || generation == null) {
+                    throw new IllegalStateException("filter " + field + " was not registered");
+                }
+            }
+            return epoch + ":" + generation + ":" + suffix;
+        } catch (Exception e) {
+            // Without a generation the page must not be served from cache
+            failures.incrementAndGet();
+            log.warn("Alert cache generations unavailable: {}", e.getMessage());
+            return UNCACHED_PREFIX + UUID.randomUUID() + ":" + suffix;
+        }
+    }
+
+    /**
+     * False for the one-off keys handed out while generations are unavailable.
+     */
+    public static boolean isTracked(String key) {
+        return !key.startsWith(UNCACHED_PREFIX);
+    }
+
+    public void alertCreated(String location, AlertStatus status) {
+        alertChanged(null, null, location, status);
+    }
+
+    public void alertDeleted(String location, AlertStatus status) {
+        alertChanged(location, status, null, null);
+    }
+
+    /**
+     * Invalidate the listings an alert appeared in before or after a write, once the transaction commits.
+     * Pass the same state twice for in-place edits (description, image). Report counts alone do not bump,
+     * so the count shown in listings can lag by up to the cache TTL.
+     */
+    public void alertChanged(String locationBefore, AlertStatus statusBefore, String locationAfter, AlertStatus statusAfter) {
+        TransactionHooks.afterCommit(() -> bump(locationBefore, statusBefore, locationAfter, statusAfter));
+    }
+
+    /**
+     * Current generation of one alert, or null when it is unavailable and the alert must not be cached.
+     */
+    public String alertGeneration(Long alertId) {
+        try {
+            return alertGenerations.get(alertId, id -> {
+                Object generation = redisTemplate.opsForHash().get(ALERT_HASH_KEY, id.toString());
+                return generation == null ? "0" : generation.toString();
+            });
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.warn("Alert cache generations unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Move one alert to a new generation once the transaction commits.
+     */
+    public void alertWritten(Long alertId) {
+        TransactionHooks.afterCommit(() -> bumpAlert(alertId));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writes", bumpedWrites.get());
+        stats.put("generationBumps", bumps.get());
+        stats.put("failures", failures.get());
+        stats.put("snapshotReloads", reloads.get());
+        try {
+            stats.put("trackedFilters", Math.max(0, redisTemplate.opsForHash().size(HASH_KEY) - 1));
+        } catch (Exception e) {
+            stats.put("trackedFilters", null);
+        }
+        return stats;
+    }
+
+    private void bump(String locationBefore, AlertStatus statusBefore, String locationAfter, AlertStatus statusAfter) {
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            Set<String> fields = hash.keys(HASH_KEY);
+            List<String> affected = new ArrayList<>();
+            for (String field : fields) {
+                if (EPOCH_FIELD.equals(field)) {
+                    continue;
+                }
+                int separator = field.lastIndexOf('|');
+                String location = field.substring(0, separator);
+                String status = field.substring(separator + 1);
+                if (matches(location, status, locationBefore, statusBefore) || matches(location, status, locationAfter, statusAfter)) {
+                    affected.add(field);
+                }
+            }
+            for (String field : affected) {
+                hash.increment(HASH_KEY, field, 1);
+            }
+            bumpedWrites.incrementAndGet();
+            bumps.addAndGet(affected.size());
+            if (!affected.isEmpty()) {
+                reload();
+                redisTemplate.convertAndSend(TwoLevelCacheManager.CHANNEL, nodeId + "|" + CHANNEL_NAME + "|G|");
+            }
+        } catch (Exception e) {
+            // Stale pages then live until their TTL; nothing else to fall back to
+            failures.incrementAndGet();
+            log.warn("Failed to bump alert cache generations: {}", e.getMessage());
+        }
+    }
+
+    private void bumpAlert(Long alertId) {
+        try {
+            Long generation = redisTemplate.opsForHash().increment(ALERT_HASH_KEY, alertId.toString(), 1);
+            // Renewed on every write, so the hash only expires (and counters restart) once every response
+            // cached under an old generation has long expired
+            redisTemplate.expire(ALERT_HASH_KEY, Duration.ofHours(generationTtlHours));
+            alertGenerations.put(alertId, generation.toString());
+            redisTemplate.convertAndSend(TwoLevelCacheManager.CHANNEL, nodeId + "|" + CHANNEL_NAME + "|A|" + alertId);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            alertGenerations.invalidate(alertId);
+            log.warn("Failed to bump generation of alert {}: {}", alertId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length != 4 || !CHANNEL_NAME.equals(parts[1]) || nodeId.equals(parts[0])) {
+            return;
+        }
+        // Both are reloaded lazily by the next read
+        if ("A".equals(parts[2])) {
+            alertGenerations.invalidate(Long.valueOf(parts[3]));
+        } else {
+            snapshotLoadedAt = 0;
+        }
+    }
+
+    private Map<String, String> current() {
+        if (System.currentTimeMillis() - snapshotLoadedAt < refreshMillis) {
+            return snapshot;
+        }
+        synchronized (this) {
+            // Another reader may have reloaded while this one waited
+            if (System.currentTimeMillis() - snapshotLoadedAt < refreshMillis) {
+                return snapshot;
+            }
+            return reload();
+        }
+    }
+
+    private synchronized Map<String, String> reload() {
+        long loadedAt = System.currentTimeMillis();
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Map<String, String> generations = Map.copyOf(hash.entries(HASH_KEY));
+        snapshot = generations;
+        snapshotLoadedAt = loadedAt;
+        reloads.incrementAndGet();
+        return generations;
+    }
+
+    private static boolean matches(String locationFilter, String statusFilter, String location, AlertStatus status) {
+        if (status == null) {
+            return false;
+        }
+        boolean statusMatches = ANY_STATUS.equals(statusFilter) || statusFilter.equals(status.name());
+        boolean locationMatches = locationFilter.isEmpty() || (location != null && location.toLowerCase(Locale.ROOT).contains(locationFilter));
+        return statusMatches && locationMatches;
+    }
+
+    private static String field(String location, String status) {
+        return location + "|" + status;
+    }
+
+    // Same semantics as AlertSpecifications.containsPattern: trimmed, case-insensitive, blank = no filter
+    private static String normalize(String location) {
+        return location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,285 @@
+package com.project.khoya.service;
+
+import com.project.khoya.dto.AlertClusterResponse;
+import com.project.khoya.dto.AlertSummary;
+import com.project.khoya.dto.NearbyAlertResponse;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.MissingAlert;
+import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.utils.GeoHash;
+import com.project.khoya.utils.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Radius and bounding-box queries over alert coordinates.
+ * <p>
+ * Points are held in memory in a map sorted by full-precision geohash, so every geohash cell is one
+ * contiguous key range. A query covers its bounding box with a handful of cells at a matching precision,
+ * range-scans them, and filters the candidates by exact distance. Coordinates are persisted on the alert
+ * (with an indexed geohash column) and the map is reloaded from MySQL on startup.
+ * Boxes are clamped at the antimeridian rather than wrapped.
+ * <p>
+ * The same map backs server-side clustering for the map view: active alerts are grouped by geohash cell
+ * at a precision that follows the zoom level, per tile, with tiles cached until an alert inside them
+ * moves or changes between active and inactive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertGeoService {
+
+    // Upper bound on cells scanned per query; the precision is chosen to stay under it
+    private static final int MAX_QUERY_CELLS = 32;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    // Cluster cell precision per zoom level 0..20, about 16 cells across a 256px map tile
+    private static final int[] ZOOM_PRECISION = {1, 2, 2, 2, 3, 3, 4, 4, 4, 5, 5, 6, 6, 6, 7, 7, 8, 8, 8, 9, 9};
+    private static final int MAX_CLUSTER_TILES = 256;
+    private static final int CLUSTER_SAMPLE_SIZE = 5;
+    private static final Set<AlertStatus> CLUSTERED_STATUSES = Set.of(AlertStatus.ACTIVE, AlertStatus.UNDER_REVIEW);
+
+    private final MissingAlertRepository alertRepository;
+    private final GeocodingService geocodingService;
+
+    @Value("${app.geo.cluster.cache-tiles:4096}")
+    private int clusterCacheTiles;
+
+    // geohash + ':' + id -> point; ids map back to their key for moves and removals
+    private final ConcurrentSkipListMap<String, GeoPoint> points = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+    private ClusterTileCache clusterTiles;
+
+    private record GeoPoint(Long alertId, double latitude, double longitude, AlertStatus status, LocalDateTime createdAt) {
+    }
+
+    private record GeoHit(GeoPoint point, Double distanceKm) {
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterTiles = new ClusterTileCache(clusterCacheTiles, ZOOM_PRECISION[ZOOM_PRECISION.length - 1]);
+    }
+
+    /**
+     * Set the alert's coordinates from the client when given, otherwise geocode its location text.
+     * Coordinates are cleared when neither is available so a moved alert never keeps a stale point.
+     */
+    public void locate(MissingAlert alert, Double latitude, Double longitude) {
+        if (latitude != null && longitude != null) {
+            setCoordinates(alert, latitude, longitude);
+            return;
+        }
+        geocodingService.geocode(alert.getLocation()).ifPresentOrElse(coordinates -> setCoordinates(alert, coordinates.latitude(), coordinates.longitude()), () -> {
+            alert.setLatitude(null);
+            alert.setLongitude(null);
+            alert.setGeohash(null);
+        });
+    }
+
+    /**
+     * Add, move or drop the alert's point once the current transaction commits.
+     */
+    public void index(MissingAlert alert) {
+        Long alertId = alert.getId();
+        if (alert.getLatitude() == null || alert.getLongitude() == null) {
+            remove(alertId);
+            return;
+        }
+        GeoPoint point = new GeoPoint(alertId, alert.getLatitude(), alert.getLongitude(), alert.getStatus(), alert.getCreatedAt());
+        TransactionHooks.afterCommit(() -> put(point));
+    }
+
+    public void remove(Long alertId) {
+        TransactionHooks.afterCommit(() -> {
+            String key = keysById.remove(alertId);
+            if (key != null) {
+                GeoPoint removed = points.remove(key);
+                if (removed != null && CLUSTERED_STATUSES.contains(removed.status())) {
+                    clusterTiles.invalidate(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Alerts within {@code radiusKm} of the point, nearest first (newest first when sorting by recency).
+     */
+    public List<NearbyAlertResponse> findNearby(double latitude, double longitude, double radiusKm, Set<AlertStatus> statuses, boolean newestFirst, int limit) {
+        double[] box = GeoHash.boundingBox(latitude, longitude, radiusKm);
+        List<GeoHit> hits = new ArrayList<>();
+        for (GeoPoint point : candidates(box[0], box[1], box[2], box[3], statuses)) {
+            double distance = GeoHash.distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance <= radiusKm) {
+                hits.add(new GeoHit(point, distance));
+            }
+        }
+
+        Comparator<GeoHit> byDistance = Comparator.comparingDouble(GeoHit::distanceKm);
+        Comparator<GeoHit> byRecency = Comparator.comparing((GeoHit hit) -> hit.point().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()));
+        hits.sort(newestFirst ? byRecency.thenComparing(byDistance) : byDistance.thenComparing(byRecency));
+        return hydrate(hits, limit);
+    }
+
+    /**
+     * Alerts inside the box, newest first.
+     */
+    public List<NearbyAlertResponse> findWithin(double minLat, double minLon, double maxLat, double maxLon, Set<AlertStatus> statuses, int limit) {
+        List<GeoHit> hits = new ArrayList<>();
+        for (GeoPoint point : candidates(minLat, minLon, maxLat, maxLon, statuses)) {
+            if (point.latitude() >= minLat && point.latitude() <= maxLat && point.longitude() >= minLon && point.longitude() <= maxLon) {
+                hits.add(new GeoHit(point, null));
+            }
+        }
+        hits.sort(Comparator.comparing((GeoHit hit) -> hit.point().createdAt(), Comparator.nullsLast(Comparator.reverseOrder())));
+        return hydrate(hits, limit);
+    }
+
+    /**
+     * Clusters of active alerts for the map viewport at the given zoom (0-20). Returns whole tiles, so
+     * clusters just outside the box are included and panning reuses cached tiles.
+     *
+     * @throws IllegalArgumentException when the box spans too many tiles for the zoom level
+     */
+    public AlertClusterResponse findClusters(double minLat, double minLon, double maxLat, double maxLon, int zoom) {
+        int precision = ZOOM_PRECISION[Math.min(Math.max(zoom, 0), ZOOM_PRECISION.length - 1)];
+        int tilePrecision = ClusterTileCache.tilePrecision(precision);
+        if (tilePrecision > 0 && GeoHash.cellCount(minLat, minLon, maxLat, maxLon, tilePrecision) > MAX_CLUSTER_TILES) {
+            throw new IllegalArgumentException("Viewport is too large for zoom level " + zoom);
+        }
+
+        List<String> tiles = tilePrecision == 0 ? List.of("") : GeoHash.coveringCells(minLat, minLon, maxLat, maxLon, tilePrecision);
+        List<AlertClusterResponse.Cluster> clusters = new ArrayList<>();
+        for (String tile : tiles) {
+            clusters.addAll(clusterTiles.get(tile, precision, key -> clusterTile(key, precision)));
+        }
+
+        long total = clusters.stream().mapToLong(AlertClusterResponse.Cluster::getCount).sum();
+        return AlertClusterResponse.builder().zoom(zoom).precision(precision).totalAlerts(total).clusters(clusters).build();
+    }
+
+    /**
+     * Geocode alerts stored before coordinates existed, then load every point into memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            int geocoded = backfillCoordinates();
+            for (Object[] row : alertRepository.findGeoPoints()) {
+                put(new GeoPoint((Long) row[0], (Double) row[1], (Double) row[2], (AlertStatus) row[3], (LocalDateTime) row[4]));
+            }
+            clusterTiles.clear();
+            log.info("Geo index loaded {} alerts ({} newly geocoded)", keysById.size(), geocoded);
+        } catch (Exception e) {
+            log.warn("Failed to load geo index: {}", e.getMessage());
+        }
+    }
+
+    private int backfillCoordinates() {
+        int geocoded = 0;
+        long afterId = 0L;
+        List<Object[]> batch;
+        do {
+            batch = alertRepository.findUngeocoded(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (Object[] row : batch) {
+                Long alertId = (Long) row[0];
+                afterId = alertId;
+                var coordinates = geocodingService.geocode((String) row[1]);
+                if (coordinates.isPresent()) {
+                    double lat = coordinates.get().latitude();
+                    double lon = coordinates.get().longitude();
+                    alertRepository.setCoordinates(alertId, lat, lon, GeoHash.encode(lat, lon, GeoHash.MAX_PRECISION));
+                    geocoded++;
+                }
+            }
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        return geocoded;
+    }
+
+    private List<AlertClusterResponse.Cluster> clusterTile(String tile, int precision) {
+        Map<String, List<GeoPoint>> cells = new TreeMap<>();
+        for (GeoPoint point : points.subMap(tile, tile + "{").values()) {
+            if (CLUSTERED_STATUSES.contains(point.status())) {
+                String key = GeoHash.encode(point.latitude(), point.longitude(), precision);
+                cells.computeIfAbsent(key, cell -> new ArrayList<>()).add(point);
+            }
+        }
+
+        List<AlertClusterResponse.Cluster> clusters = new ArrayList<>(cells.size());
+        cells.forEach((cell, members) -> {
+            double latitude = members.stream().mapToDouble(GeoPoint::latitude).average().orElse(0);
+            double longitude = members.stream().mapToDouble(GeoPoint::longitude).average().orElse(0);
+            List<Long> sample = members.stream().sorted(Comparator.comparing(GeoPoint::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))).limit(CLUSTER_SAMPLE_SIZE).map(GeoPoint::alertId).toList();
+            clusters.add(AlertClusterResponse.Cluster.builder().cell(cell).count(members.size()).latitude(latitude).longitude(longitude).alertIds(sample).build());
+        });
+        return List.copyOf(clusters);
+    }
+
+    private List<GeoPoint> candidates(double minLat, double minLon, double maxLat, double maxLon, Set<AlertStatus> statuses) {
+        int precision = GeoHash.precisionFor(minLat, minLon, maxLat, maxLon, MAX_QUERY_CELLS);
+        List<GeoPoint> candidates = new ArrayList<>();
+        for (String cell : GeoHash.coveringCells(minLat, minLon, maxLat, maxLon, precision)) {
+            // '{' sorts right after 'z', the last geohash character
+            for (GeoPoint point : points.subMap(cell, cell + "{").values()) {
+                if (statuses == null || statuses.isEmpty() || statuses.contains(point.status())) {
+                    candidates.add(point);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private List<NearbyAlertResponse> hydrate(List<GeoHit> hits, int limit) {
+        List<GeoHit> page = hits.subList(0, Math.min(limit, hits.size()));
+        if (page.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, AlertSummary> summaries = new HashMap<>();
+        alertRepository.findSummariesByIds(page.stream().map(hit -> hit.point().alertId()).toList()).forEach(summary -> summaries.put(summary.id(), summary));
+
+        return page.stream().map(hit -> {
+            AlertSummary summary = summaries.get(hit.point().alertId());
+            return summary == null ? null : NearbyAlertResponse.builder().alert(summary.toResponse()).distanceKm(hit.distanceKm()).build();
+        }).filter(Objects::nonNull).toList();
+    }
+
+    private void put(GeoPoint point) {
+        String key = GeoHash.encode(point.latitude(), point.longitude(), GeoHash.MAX_PRECISION) + ":" + point.alertId();
+        String previous = keysById.put(point.alertId(), key);
+        GeoPoint old = previous == null ? null : previous.equals(key) ? points.get(previous) : points.remove(previous);
+        points.put(key, point);
+
+        boolean wasClustered = old != null && CLUSTERED_STATUSES.contains(old.status());
+        boolean isClustered = CLUSTERED_STATUSES.contains(point.status());
+        if (wasClustered && (!isClustered || !previous.equals(key))) {
+            clusterTiles.invalidate(previous);
+        }
+        if (isClustered && (!wasClustered || !previous.equals(key))) {
+            clusterTiles.invalidate(key);
+        }
+    }
+
+    private static void setCoordinates(MissingAlert alert, double latitude, double longitude) {
+        alert.setLatitude(latitude);
+        alert.setLongitude(longitude);
+        alert.setGeohash(GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION));
+    }
+}
@@ -0,0 +1,255 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.CommentStatus;
+import com.project.khoya.entity.VoteType;
+import com.project.khoya.repository.CommentRepository;
+import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.repository.VoteRepository;
+import com.project.khoya.utils.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Top-rated and most-commented alerts as Redis sorted sets (member: alert id, score: vote score or active
+ * comment count). Vote and comment writes bump the sets after their transaction commits, so top-N is a
+ * single ZREVRANGE. A periodic check compares the sets with the votes and comments tables and repairs drift.
+ * <p>
+ * Increments create a set before it holds every alert, so each set has a marker key that is written only once
+ * a check has seeded it in full. Reads fall back to the database until the marker exists; if Redis loses the
+ * data, the marker goes with it and the next check seeds again.
+ * <p>
+ * The same check keeps the denormalized {@code upvotes}, {@code downvotes}, {@code score} and
+ * {@code comment_count} columns of missing_alerts in step with the tables, which the database fallbacks and
+ * the score-sorted feeds read. They are backfilled once at startup, since older alerts predate them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertLeaderboardService {
+
+    private static final String SCORE_KEY = "leaderboard:alerts:score";
+    private static final String COMMENTS_KEY = "leaderboard:alerts:comments";
+    private static final String SEEDED_SUFFIX = ":seeded";
+    private static final int RECOUNT_BATCH_SIZE = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MissingAlertRepository alertRepository;
+    private final VoteRepository voteRepository;
+    private final CommentRepository commentRepository;
+
+    // Members that disagreed with the DB on the previous check; repaired only if they still disagree,
+    // so an increment racing with the check is not overwritten by a stale DB read
+    private final Map<String, Set<String>> suspects = new HashMap<>();
+
+    public void alertCreated(Long alertId) {
+        afterCommit(() -> {
+            redisTemplate.opsForZSet().addIfAbsent(SCORE_KEY, alertId.toString(), 0);
+            redisTemplate.opsForZSet().addIfAbsent(COMMENTS_KEY, alertId.toString(), 0);
+        });
+    }
+
+    public void alertDeleted(Long alertId) {
+        afterCommit(() -> {
+            redisTemplate.opsForZSet().remove(SCORE_KEY, alertId.toString());
+            redisTemplate.opsForZSet().remove(COMMENTS_KEY, alertId.toString());
+        });
+    }
+
+    public void scoreChanged(Long alertId, int delta) {
+        if (delta != 0) {
+            afterCommit(() -> redisTemplate.opsForZSet().incrementScore(SCORE_KEY, alertId.toString(), delta));
+        }
+    }
+
+    public void commentCountChanged(Long alertId, int delta) {
+        if (delta != 0) {
+            afterCommit(() -> redisTemplate.opsForZSet().incrementScore(COMMENTS_KEY, alertId.toString(), delta));
+        }
+    }
+
+    /**
+     * Ids of the highest-scored alerts, best first, or null when the leaderboard is unavailable.
+     */
+    public List<Long> topByScore(int limit) {
+        return top(SCORE_KEY, limit);
+    }
+
+    /**
+     * Ids of the most-commented alerts, best first, or null when the leaderboard is unavailable.
+     */
+    public List<Long> topByComments(int limit) {
+        return top(COMMENTS_KEY, limit);
+    }
+
+    /**
+     * Bring every alert's engagement columns in line with the votes and comments tables.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillEngagementColumns() {
+        try {
+            int updated = alertRepository.backfillEngagementCounts();
+            if (updated > 0) {
+                log.info("Backfilled vote and comment counts of {} alerts", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to backfill alert engagement counts: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.check-interval-ms:900000}", initialDelayString = "${app.leaderboard.check-initial-delay-ms:30000}")
+    public void checkConsistency() {
+        // Per alert: {upvotes, downvotes, commentCount, score}
+        Map<Long, int[]> columns = new HashMap<>();
+        Map<String, Double> expectedScores = new HashMap<>();
+        Map<String, Double> expectedComments = new HashMap<>();
+        Map<Long, int[]> expectedColumns = new HashMap<>();
+        try {
+            for (Object[] row : alertRepository.findEngagementCounts()) {
+                Long alertId = (Long) row[0];
+                columns.put(alertId, new int[]{(Integer) row[1], (Integer) row[2], (Integer) row[3], (Integer) row[4]});
+                expectedColumns.put(alertId, new int[4]);
+                expectedScores.put(alertId.toString(), 0.0);
+                expectedComments.put(alertId.toString(), 0.0);
+            }
+            for (Object[] row : voteRepository.getVoteCountsForAllAlerts()) {
+                int votes = ((Number) row[2]).intValue();
+                expectedScores.merge(row[0].toString(), (double) (row[1] == VoteType.UP ? votes : -votes), Double::sum);
+                int[] expected = expectedColumns.get((Long) row[0]);
+                if (expected != null) {
+                    expected[row[1] == VoteType.UP ? 0 : 1] = votes;
+                }
+            }
+            for (Object[] row : commentRepository.countAllByAlertAndStatus(CommentStatus.ACTIVE)) {
+                int comments = ((Number) row[1]).intValue();
+                expectedComments.put(row[0].toString(), (double) comments);
+                int[] expected = expectedColumns.get((Long) row[0]);
+                if (expected != null) {
+                    expected[2] = comments;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Leaderboard consistency check failed: {}", e.getMessage());
+            return;
+        }
+
+        repairColumns(columns, expectedColumns);
+
+        try {
+            int repaired = reconcile(SCORE_KEY, expectedScores) + reconcile(COMMENTS_KEY, expectedComments);
+            if (repaired > 0) {
+                log.warn("Repaired {} leaderboard entries that drifted from the database", repaired);
+            }
+        } catch (Exception e) {
+            log.warn("Leaderboard consistency check failed: {}", e.getMessage());
+        }
+    }
+
+    // A mismatch may only be a delta that committed between the reads above; the recount is exact either way
+    private void repairColumns(Map<Long, int[]> columns, Map<Long, int[]> expectedColumns) {
+        List<Long> drifted = new ArrayList<>();
+        columns.forEach((alertId, actual) -> {
+            int[] expected = expectedColumns.get(alertId);
+            expected[3] = expected[0] - expected[1];
+            if (!Arrays.equals(actual, expected)) {
+                drifted.add(alertId);
+            }
+        });
+        try {
+            for (int from = 0; from < drifted.size(); from += RECOUNT_BATCH_SIZE) {
+                alertRepository.recountEngagement(drifted.subList(from, Math.min(from + RECOUNT_BATCH_SIZE, drifted.size())));
+            }
+            if (!drifted.isEmpty()) {
+                log.warn("Recounted votes and comments of {} alerts that drifted from the database", drifted.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to repair alert engagement counts: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> top(String key, int limit) {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(key + SEEDED_SUFFIX))) {
+                return null;
+            }
+            Set<String> members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1);
+            // An empty set next to a marker means the set itself was evicted; let the database answer
+            return members == null || members.isEmpty() ? null : members.stream().map(Long::valueOf).toList();
+        } catch (Exception e) {
+            log.warn("Leaderboard {} unavailable: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private int reconcile(String key, Map<String, Double> expected) {
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Set<ZSetOperations.TypedTuple<String>> current = zSet.rangeWithScores(key, 0, -1);
+        boolean seeding = !Boolean.TRUE.equals(redisTemplate.hasKey(key + SEEDED_SUFFIX))
+                || ((current == null || current.isEmpty()) && !expected.isEmpty());
+
+        Map<String, Double> actual = new HashMap<>();
+        if (current != null) {
+            current.forEach(tuple -> actual.put(tuple.getValue(), tuple.getScore()));
+        }
+
+        Set<String> previousSuspects = suspects.getOrDefault(key, Set.of());
+        Set<String> nextSuspects = new HashSet<>();
+        int repaired = 0;
+
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            Double score = actual.remove(entry.getKey());
+            if (score != null && score.doubleValue() == entry.getValue()) {
+                continue;
+            }
+            if (seeding || previousSuspects.contains(entry.getKey())) {
+                zSet.add(key, entry.getKey(), entry.getValue());
+                repaired++;
+            } else {
+                nextSuspects.add(entry.getKey());
+            }
+        }
+        // Whatever is left belongs to alerts that no longer exist
+        for (String member : actual.keySet()) {
+            if (seeding || previousSuspects.contains(member)) {
+                zSet.remove(key, member);
+                repaired++;
+            } else {
+                nextSuspects.add(member);
+            }
+        }
+
+        suspects.put(key, nextSuspects);
+        if (seeding) {
+            redisTemplate.opsForValue().set(key + SEEDED_SUFFIX, "1");
+            log.info("Seeded leaderboard {} with {} alerts", key, repaired);
+            return 0;
+        }
+        return repaired;
+    }
+
+    private void afterCommit(Runnable update) {
+        TransactionHooks.afterCommit(() -> apply(update));
+    }
+
+    private void apply(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            // Redis outages only delay the leaderboard; the consistency check repairs it
+            log.warn("Failed to update leaderboard: {}", e.getMessage());
+        }
+    }
+}
@@ -31,6 +31,8 @@ public class AlertReportingService {
     private final AlertReportRepository reportRepository;
     private final MissingAlertRepository alertRepository;
     private final UserRepository userRepository;
+    private final AlertService alertService;
+    private final ResponseCacheService responseCache;
 
     @Value("${app.auto-moderation.flag-threshold:5}")
     private int flagThreshold;
@@ -78,6 +80,8 @@ public class AlertReportingService {
         if (autoModerationEnabled) {
             checkAndApplyAutoModeration(alert);
         }
+        // A bare report count change leaves listings alone (they lag up to the cache TTL)
+        responseCache.alertChanged(alert.getId());
 
         return mapToReportResponse(savedReport);
     }
@@ -97,8 +101,9 @@ public class AlertReportingService {
         if (reportCount >= deleteThreshold && !alert.isAutoDeleted()) {
             alert.setAutoDeleted(true);
             alert.setAutoDeletedAt(LocalDateTime.now());
-            alert.setStatus(AlertStatus.CLOSED);
             log.warn("Alert {} auto-deleted due to {} reports", alert.getId(), reportCount);
+            alertService.changeStatus(alert, AlertStatus.CLOSED);
+            return;
         }
 
         alertRepository.save(alert);
@@ -149,9 +154,8 @@ public class AlertReportingService {
         alert.setFlagged(true);
         alert.setFlaggedAt(LocalDateTime.now());
         alert.setFlaggedReason("Admin action: " + reason);
-        alert.setStatus(AlertStatus.UNDER_REVIEW);
 
-        alertRepository.save(alert);
+        alertService.changeStatus(alert, AlertStatus.UNDER_REVIEW);
         log.info("Admin action taken on alert {}: flagged and under review", alert.getId());
     }
 
@@ -0,0 +1,320 @@
+package com.project.khoya.service;
+
+import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.dto.AlertSearchResponse;
+import com.project.khoya.dto.AlertSummary;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.MissingAlert;
+import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.utils.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Embedded Lucene index over alert title, description and location for ranked keyword search.
+ * <p>
+ * Alert writes update the index after their transaction commits; searches go through a
+ * {@link SearcherManager} that is refreshed every second, so new alerts become searchable almost
+ * immediately. The index lives on local disk and can be rebuilt from MySQL at any time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertSearchService {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_LOCATION = "location";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_CREATED = "createdAt";
+
+    // Title matches count most, then location, then description
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(FIELD_TITLE, 3.0f, FIELD_LOCATION, 2.0f, FIELD_DESCRIPTION, 1.0f);
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final MissingAlertRepository alertRepository;
+
+    @Value("${app.search.index.path:data/search-index}")
+    private String indexPath;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private FSDirectory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    private record SearchResult(List<Long> alertIds, long totalHits) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(indexPath).toAbsolutePath();
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        log.info("Search index opened at {} with {} documents", path, writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (searcherManager != null) {
+            searcherManager.close();
+        }
+        if (writer != null) {
+            writer.commit();
+            writer.close();
+        }
+        if (directory != null) {
+            directory.close();
+        }
+    }
+
+    /**
+     * Add or replace an alert once the current transaction commits.
+     */
+    public void index(MissingAlert alert) {
+        Document document = toDocument(alert.getId(), alert.getTitle(), alert.getDescription(), alert.getLocation(), alert.getStatus(), alert.getCreatedAt());
+        TransactionHooks.afterCommit(() -> apply(() -> writer.updateDocument(idTerm(alert.getId()), document)));
+    }
+
+    public void remove(Long alertId) {
+        TransactionHooks.afterCommit(() -> apply(() -> writer.deleteDocuments(idTerm(alertId))));
+    }
+
+    /**
+     * Ranked keyword search over title, description and location; with a blank query, the newest alerts
+     * matching the filters. Hits are hydrated from MySQL as summaries in relevance order.
+     */
+    public AlertSearchResponse search(String text, AlertStatus status, LocalDateTime createdFrom, LocalDateTime createdTo, int page, int size) {
+        SearchResult result;
+        try {
+            result = searchIndex(text, status, createdFrom, createdTo, page * size, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index unavailable", e);
+        }
+
+        Map<Long, AlertSummary> summaries = new HashMap<>();
+        if (!result.alertIds().isEmpty()) {
+            alertRepository.findSummariesByIds(result.alertIds()).forEach(summary -> summaries.put(summary.id(), summary));
+        }
+        // Ids deleted since the last refresh simply drop out
+        List<AlertResponse> alerts = result.alertIds().stream().map(summaries::get).filter(Objects::nonNull).map(AlertSummary::toResponse).toList();
+
+        return AlertSearchResponse.builder().alerts(alerts).totalHits(result.totalHits()).page(page).size(size).build();
+    }
+
+    private SearchResult searchIndex(String text, AlertStatus status, LocalDateTime createdFrom, LocalDateTime createdTo, int offset, int limit) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean ranked = text != null && !text.isBlank();
+        if (ranked) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            query.add(parser.parse(text.trim()), BooleanClause.Occur.MUST);
+        } else {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term(FIELD_STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+        if (createdFrom != null || createdTo != null) {
+            long from = createdFrom != null ? toMillis(createdFrom) : Long.MIN_VALUE;
+            long to = createdTo != null ? toMillis(createdTo) : Long.MAX_VALUE;
+            query.add(LongPoint.newRangeQuery(FIELD_CREATED, from, to), BooleanClause.Occur.FILTER);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Query built = query.build();
+            int wanted = offset + limit;
+            TopDocs topDocs = ranked
+                    ? searcher.search(built, wanted, new Sort(SortField.FIELD_SCORE, new SortField(FIELD_CREATED, SortField.Type.LONG, true)), true)
+                    : searcher.search(built, wanted, new Sort(new SortField(FIELD_CREATED, SortField.Type.LONG, true)));
+
+            StoredFields storedFields = searcher.storedFields();
+            List<Long> alertIds = new ArrayList<>();
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                alertIds.add(storedFields.document(scoreDoc.doc).getField(FIELD_ID).numericValue().longValue());
+            }
+            return new SearchResult(alertIds, topDocs.totalHits.value);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Replace the whole index with the current contents of missing_alerts. Searches keep seeing the old
+     * index until the rebuild commits.
+     */
+    public int rebuild() throws IOException {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Search index rebuild already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            writer.deleteAll();
+
+            int indexed = 0;
+            long afterId = 0L;
+            List<AlertSummary> batch;
+            do {
+                batch = alertRepository.findSummariesAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (AlertSummary alert : batch) {
+                    writer.addDocument(toDocument(alert.id(), alert.title(), alert.description(), alert.location(), alert.status(), alert.createdAt()));
+                    afterId = alert.id();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            writer.commit();
+            searcherManager.maybeRefresh();
+            log.info("Rebuilt search index with {} alerts in {} ms", indexed, System.currentTimeMillis() - start);
+            return indexed;
+        } catch (IOException | RuntimeException e) {
+            writer.rollback();
+            reopenAfterRollback();
+            throw e;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Build the index on first start, or when it was lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (writer.getDocStats().numDocs == 0 && alertRepository.count() > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to build search index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh search index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index.commit-interval-ms:30000}")
+    public void commit() {
+        if (rebuilding.get() || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit search index: {}", e.getMessage());
+        }
+    }
+
+    private void reopenAfterRollback() throws IOException {
+        // rollback() closes the writer
+        searcherManager.close();
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    private Document toDocument(Long id, String title, String description, String location, AlertStatus status, LocalDateTime createdAt) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, id.toString(), Field.Store.NO));
+        document.add(new StoredField(FIELD_ID, id));
+        addText(document, FIELD_TITLE, title);
+        addText(document, FIELD_DESCRIPTION, description);
+        addText(document, FIELD_LOCATION, location);
+        if (status != null) {
+            document.add(new StringField(FIELD_STATUS, status.name(), Field.Store.NO));
+        }
+        long created = createdAt != null ? toMillis(createdAt) : 0L;
+        document.add(new LongPoint(FIELD_CREATED, created));
+        document.add(new NumericDocValuesField(FIELD_CREATED, created));
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private static Term idTerm(Long alertId) {
+        return new Term(FIELD_ID, alertId.toString());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void apply(IndexOperation operation) {
+        try {
+            operation.run();
+        } catch (Exception e) {
+            // The index is derived data; a rebuild restores anything lost here
+            log.warn("Failed to update search index: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws IOException;
+    }
+}
@@ -1,28 +1,45 @@
 package com.project.khoya.service;
 
 import ai.djl.modality.cv.Image;
-import ai.djl.modality.cv.ImageFactory;
 import ai.djl.translate.TranslateException;
 import com.project.khoya.dto.*;
+import com.project.khoya.entity.AlertEmbedding;
 import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.CommentStatus;
 import com.project.khoya.entity.MissingAlert;
 import com.project.khoya.entity.User;
+import com.project.khoya.entity.VoteType;
 import com.project.khoya.exception.AlertNotFoundException;
 import com.project.khoya.exception.UnauthorizedOperationException;
 import com.project.khoya.messaging.AlertMessageProducer;
+import com.project.khoya.repository.AlertSpecifications;
+import com.project.khoya.repository.CommentRepository;
 import com.project.khoya.repository.MissingAlertRepository;
 import com.project.khoya.repository.UserRepository;
+import com.project.khoya.repository.VoteRepository;
+import com.project.khoya.service.Image.AlertAttributes;
+import com.project.khoya.service.Image.AlertEmbeddingService;
 import com.project.khoya.service.Image.FeatureExtractionService;
+import com.project.khoya.service.Image.ImagePreprocessor;
+import com.project.khoya.service.Image.ImageSpool;
+import com.project.khoya.service.Image.QueryEmbeddingCache;
+import com.project.khoya.service.Image.SimilarityHit;
+import com.project.khoya.service.Image.SimilarityIndexService;
+import com.project.khoya.service.Image.SimilarityQuery;
+import com.project.khoya.utils.KeysetCursor;
+import com.project.khoya.utils.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,8 +47,10 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,17 +59,34 @@ import java.util.stream.Collectors;
 @Transactional
 public class AlertService {
 
+    private static final String FEED_SORT_KEY = "recent";
+    private static final Sort FEED_SORT = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+
     private final MissingAlertRepository alertRepository;
     private final UserRepository userRepository;
     private final FirebaseMessagingService firebaseMessagingService;
     private final CloudinaryService cloudinaryService;
     private final AlertMessageProducer messageProducer;
     private final FeatureExtractionService featureExtractionService;
+    private final SimilarityIndexService similarityIndexService;
+    private final AlertEmbeddingService alertEmbeddingService;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ImageSpool imageSpool;
+    private final UserStatsService userStatsService;
+    private final AlertLeaderboardService leaderboardService;
+    private final TrendingService trendingService;
+    private final AlertSearchService alertSearchService;
+    private final AlertGeoService alertGeoService;
+    private final AlertCacheGenerations cacheGenerations;
+    private final ResponseCacheService responseCache;
+    private final VoteRepository voteRepository;
+    private final CommentRepository commentRepository;
 
     /**
      * Create a new missing person alert with image and feature extraction.
      */
-    @Caching(evict = {@CacheEvict(value = "alerts", allEntries = true), @CacheEvict(value = "userAlerts", key = "#userId")})
+    @CacheEvict(value = "userAlerts", key = "#userId")
     public SimpleAlertResponse createAlert(CreateAlertRequest request, MultipartFile imageFile, Long userId) throws IOException {
         log.info("Creating alert for user: {}", userId);
 
@@ -60,6 +96,7 @@ public class AlertService {
         alert.setTitle(request.getTitle());
         alert.setDescription(request.getDescription());
         alert.setLocation(request.getLocation());
+        alertGeoService.locate(alert, request.getLatitude(), request.getLongitude());
         alert.setStatus(AlertStatus.ACTIVE);
         alert.setPostedBy(user);
 
@@ -78,6 +115,11 @@ public class AlertService {
         }
 
         MissingAlert savedAlert = alertRepository.save(alert);
+        userStatsService.alertCreated(userId);
+        leaderboardService.alertCreated(savedAlert.getId());
+        alertSearchService.index(savedAlert);
+        alertGeoService.index(savedAlert);
+        cacheGenerations.alertCreated(savedAlert.getLocation(), savedAlert.getStatus());
         log.info("Alert created with ID: {}", savedAlert.getId());
 
         // Send async messages for social media posting and notifications
@@ -90,13 +132,35 @@ public class AlertService {
                     .alertId(savedAlert.getId())
                     .imageUrl(savedAlert.getImageUrl())
                     .build();
-            messageProducer.sendFeatureExtractionMessage(featureMessage);
+            // Stage a thumbnail locally so feature extraction need not download the image again; the
+            // message goes out once the thumbnail is written, so the worker finds it
+            Long alertId = savedAlert.getId();
+            byte[] original = imageFile.getBytes();
+            TransactionHooks.afterCommit(() -> imageSpool.spoolAsync(alertId, original, () -> messageProducer.sendFeatureExtractionMessage(featureMessage)));
         }
         messageProducer.sendNotificationMessage(alertMessage);
 
         return SimpleAlertResponse.builder().status("success").message("Alert created successfully and will be posted to social media shortly").alertId(savedAlert.getId()).build();
     }
 
+    public boolean isSimilaritySearchReady() {
+        return featureExtractionService.isModelLoaded();
+    }
+
+    /**
+     * Readiness of the similarity pipeline: model state, predictor pool usage and index size.
+     */
+    public Map<String, Object> getSimilaritySearchStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("modelState", featureExtractionService.getModelState());
+        status.put("ready", featureExtractionService.isModelLoaded());
+        status.put("predictorPoolSize", featureExtractionService.getPredictorPoolSize());
+        status.put("availablePredictors", featureExtractionService.getAvailablePredictors());
+        status.put("indexReady", similarityIndexService.isReady());
+        status.put("indexSize", similarityIndexService.size());
+        return status;
+    }
+
     /**
      * Find visually similar alerts using image feature vectors.
      * Uses cosine similarity to rank alerts by visual similarity.
@@ -106,67 +170,47 @@ public class AlertService {
      * @param similarityThreshold Minimum similarity score (0.0 to 1.0)
      * @return List of similar alerts with similarity scores
      */
-
     public List<SimilarAlertResponse> findSimilarAlerts(MultipartFile newImageFile, int topK, double similarityThreshold) throws Exception {
+        return findSimilarAlerts(newImageFile, SimilarityQuery.builder().topK(topK).threshold(similarityThreshold).build());
+    }
 
-        log.info("Searching for similar alerts (topK: {}, threshold: {})", topK, similarityThreshold);
-
-        // Extract features from the query image
-        Image queryImage = ImageFactory.getInstance().fromInputStream(newImageFile.getInputStream());
-        float[] queryEmbedding = featureExtractionService.extractFeatures(queryImage);
-
-        int expectedDimension = featureExtractionService.getFeatureDimension();
-        log.info("Query embedding dimension: {}, expected: {}", queryEmbedding.length, expectedDimension);
-
-        // Get all active alerts with embeddings
-        List<MissingAlert> allAlerts = alertRepository.findByStatus(AlertStatus.ACTIVE);
-
-        // Filter alerts that have the CORRECT dimension (2048)
-        List<MissingAlert> alertsWithCorrectDimension = allAlerts.stream().filter(alert -> {
-            if (alert.getImageEmbedding() == null || alert.getImageEmbedding().length == 0) {
-                return false;
-            }
+    /**
+     * Find visually similar alerts restricted by the query's metadata filters (location, created window, statuses).
+     */
+    public List<SimilarAlertResponse> findSimilarAlerts(MultipartFile newImageFile, SimilarityQuery query) throws Exception {
 
-            int alertDimension = alert.getImageEmbedding().length / Float.BYTES;
-            boolean isCorrect = alertDimension == expectedDimension;
+        log.info("Searching for similar alerts (topK: {}, threshold: {}, location: {}, statuses: {})", query.getTopK(), query.getThreshold(), query.getLocation(), query.effectiveStatuses());
 
-            if (!isCorrect) {
-                log.debug("Skipping alert {} - wrong dimension: {} (expected {})", alert.getId(), alertDimension, expectedDimension);
-            }
+        // Extract features from the query image, unless the same bytes were searched recently
+        byte[] imageBytes = newImageFile.getBytes();
+        float[] queryEmbedding = queryEmbeddingCache.getOrCompute(imageBytes, () -> featureExtractionService.extractFeatures(imagePreprocessor.decode(imageBytes)));
 
-            return isCorrect;
-        }).toList();
+        // Filtered top-K from the resident index, then load only those alerts
+        List<SimilarityHit> hits = similarityIndexService.search(queryEmbedding, query).stream().filter(hit -> hit.similarity() >= query.getThreshold()).toList();
 
-        log.info("Comparing against {} alerts with correct dimension ({})", alertsWithCorrectDimension.size(), expectedDimension);
+        Map<Long, MissingAlert> alertsById = alertRepository.findAllById(hits.stream().map(SimilarityHit::alertId).toList()).stream().collect(Collectors.toMap(MissingAlert::getId, Function.identity()));
 
-        if (alertsWithCorrectDimension.isEmpty()) {
-            log.warn("No alerts found with {}-dimensional embeddings. Create new alerts to test similarity search.", expectedDimension);
-        }
-
-        // Calculate similarities
         List<SimilarAlertResponse> similarAlerts = new ArrayList<>();
+        for (SimilarityHit hit : hits) {
+            MissingAlert alert = alertsById.get(hit.alertId());
 
-        for (MissingAlert alert : alertsWithCorrectDimension) {
-            try {
-                float[] alertEmbedding = featureExtractionService.bytesToFloatArray(alert.getImageEmbedding());
-                double similarity = featureExtractionService.calculateCosineSimilarity(queryEmbedding, alertEmbedding);
-
-                if (similarity >= similarityThreshold) {
-                    SimilarAlertResponse response = SimilarAlertResponse.builder().alert(mapToAlertResponse(alert)).similarityScore(similarity).build();
-                    similarAlerts.add(response);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to calculate similarity for alert {}: {}", alert.getId(), e.getMessage());
+            // The index can lag behind changes made outside this service
+            if (alert == null) {
+                similarityIndexService.remove(hit.alertId());
+                continue;
+            }
+            AlertAttributes attributes = AlertAttributes.of(alert);
+            if (!query.matches(attributes)) {
+                similarityIndexService.updateAttributes(alert.getId(), attributes);
+                continue;
             }
-        }
 
-        // Sort by similarity (descending) and take top K
-        similarAlerts.sort((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()));
-        List<SimilarAlertResponse> topResults = similarAlerts.stream().limit(topK).collect(Collectors.toList());
+            similarAlerts.add(SimilarAlertResponse.builder().alert(mapToAlertResponse(alert)).similarityScore(hit.similarity()).build());
+        }
 
-        log.info("Found {} similar alerts (filtered from {} total matches)", topResults.size(), similarAlerts.size());
+        log.info("Found {} similar alerts (index size: {})", similarAlerts.size(), similarityIndexService.size());
 
-        return topResults;
+        return similarAlerts;
     }
 
     /**
@@ -176,40 +220,41 @@ public class AlertService {
         return findSimilarAlerts(newImageFile, topK, 0.5); // Default 50% similarity threshold
     }
 
-    @Cacheable(value = "alerts", key = "#page + '-' + #size + '-' + #location + '-' + #status")
+    @Cacheable(value = "alerts", key = "@alertCacheGenerations.key(#page, #size, #location, #status)", sync = true)
     public AlertListResponse getAllAlerts(int page, int size, String location, AlertStatus status) {
         log.info("Fetching alerts - page: {}, size: {}, location: {}, status: {}", page, size, location, status);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<MissingAlert> alertPage;
+        Page<AlertSummary> alertPage = alertRepository.findSummaries(AlertSpecifications.containsPattern(location), status, pageable);
 
-        if (location != null && !location.trim().isEmpty()) {
-            if (status != null) {
-                alertPage = alertRepository.findByLocationContainingIgnoreCaseAndStatus(location.trim(), status, pageable);
-            } else {
-                alertPage = alertRepository.findByLocationContainingIgnoreCase(location.trim(), pageable);
-            }
-        } else {
-            if (status != null) {
-                alertPage = alertRepository.findByStatus(status, pageable);
-            } else {
-                alertPage = alertRepository.findAll(pageable);
-            }
-        }
-
-        List<AlertResponse> alertResponses = alertPage.getContent().stream().map(this::mapToAlertResponse).collect(Collectors.toList());
+        List<AlertResponse> alertResponses = alertPage.getContent().stream().map(AlertSummary::toResponse).collect(Collectors.toList());
 
         return AlertListResponse.builder().alerts(alertResponses).page(alertPage.getNumber()).size(alertPage.getSize()).totalElements(alertPage.getTotalElements()).totalPages(alertPage.getTotalPages()).isFirst(alertPage.isFirst()).isLast(alertPage.isLast()).build();
     }
 
-    @Cacheable(value = "alertById", key = "#id")
+    /**
+     * Newest-first feed continued from an opaque cursor. Seeks on (createdAt, id) instead of an offset and
+     * skips the count query, so every slice costs the same regardless of depth.
+     */
+    @Transactional(readOnly = true)
+    public AlertSliceResponse getAlertsByCursor(String cursor, int size, String location, AlertStatus status) {
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, FEED_SORT_KEY, FEED_SORT);
+        Window<MissingAlert> window = alertRepository.findBy(AlertSpecifications.matching(location, status).and(AlertSpecifications.fetchPostedBy()), query -> query.sortBy(FEED_SORT).limit(size).scroll(position));
+
+        List<AlertResponse> alertResponses = window.getContent().stream().map(this::mapToAlertResponse).collect(Collectors.toList());
+        String nextCursor = window.hasNext() && !window.isEmpty() ? KeysetCursor.encode(FEED_SORT_KEY, window.positionAt(window.size() - 1)) : null;
+
+        return AlertSliceResponse.builder().alerts(alertResponses).size(size).hasNext(window.hasNext()).nextCursor(nextCursor).build();
+    }
+
+    @Cacheable(value = "alertById", key = "#id", sync = true)
     public AlertResponse getAlertById(Long id) {
         log.info("Fetching alert by ID: {}", id);
         MissingAlert alert = alertRepository.findById(id).orElseThrow(() -> new AlertNotFoundException("Alert not found with id: " + id));
         return mapToAlertResponse(alert);
     }
 
-    @Caching(put = @CachePut(value = "alertById", key = "#id"), evict = {@CacheEvict(value = "alerts", allEntries = true), @CacheEvict(value = "userAlerts", key = "#userId")})
+    @Caching(put = @CachePut(value = "alertById", key = "#id"), evict = @CacheEvict(value = "userAlerts", key = "#userId"))
     public AlertResponse updateAlert(Long id, UpdateAlertRequest request, MultipartFile imageFile, Long userId) throws IOException {
         log.info("Updating alert: {} by user: {}", id, userId);
 
@@ -220,11 +265,16 @@ public class AlertService {
         }
 
         String oldImageUrl = alert.getImageUrl();
+        String oldLocation = alert.getLocation();
+        float[] newEmbedding = null;
 
         // Update basic fields
         if (request.getTitle() != null) alert.setTitle(request.getTitle());
         if (request.getDescription() != null) alert.setDescription(request.getDescription());
         if (request.getLocation() != null) alert.setLocation(request.getLocation());
+        if (request.getLocation() != null || (request.getLatitude() != null && request.getLongitude() != null)) {
+            alertGeoService.locate(alert, request.getLatitude(), request.getLongitude());
+        }
 
         // Update image and extract new features
         if (imageFile != null && !imageFile.isEmpty()) {
@@ -233,9 +283,8 @@ public class AlertService {
                 alert.setImageUrl(newImageUrl);
 
                 // Extract new features
-                Image image = ImageFactory.getInstance().fromInputStream(imageFile.getInputStream());
-                byte[] embedding = featureExtractionService.extractFeaturesAsBytes(image);
-                alert.setImageEmbedding(embedding);
+                Image image = imagePreprocessor.decode(imageFile.getInputStream());
+                newEmbedding = featureExtractionService.extractFeatures(image);
 
                 // Delete old image from Cloudinary
                 if (oldImageUrl != null && oldImageUrl.contains("cloudinary.com")) {
@@ -249,19 +298,13 @@ public class AlertService {
             }
         }
 
-        // Update status
-        if (request.getStatus() != null) {
-            alert.setStatus(request.getStatus());
-            if (request.getStatus() == AlertStatus.FOUND && alert.getFoundAt() == null) {
-                alert.setFoundAt(LocalDateTime.now());
-            }
-        }
-
-        MissingAlert updatedAlert = alertRepository.save(alert);
+        AlertStatus status = request.getStatus() != null ? request.getStatus() : alert.getStatus();
+        MissingAlert updatedAlert = transition(alert, status, oldLocation, true);
+        syncSimilarityIndex(updatedAlert, newEmbedding);
         return mapToAlertResponse(updatedAlert);
     }
 
-    @Caching(put = @CachePut(value = "alertById", key = "#id"), evict = {@CacheEvict(value = "alerts", allEntries = true), @CacheEvict(value = "userAlerts", key = "#userId")})
+    @Caching(put = @CachePut(value = "alertById", key = "#id"), evict = @CacheEvict(value = "userAlerts", key = "#userId"))
     public AlertResponse markAsFound(Long id, FoundRequest request, Long userId) {
         log.info("Marking alert as found: {} by user: {}", id, userId);
 
@@ -271,15 +314,13 @@ public class AlertService {
             throw new UnauthorizedOperationException("You can only mark your own alerts as found");
         }
 
-        alert.setStatus(AlertStatus.FOUND);
         alert.setFoundAt(LocalDateTime.now());
-
         if (request.getFoundDetails() != null && !request.getFoundDetails().trim().isEmpty()) {
             String updatedDescription = alert.getDescription() + "\n\nFound Details: " + request.getFoundDetails();
             alert.setDescription(updatedDescription);
         }
 
-        MissingAlert updatedAlert = alertRepository.save(alert);
+        MissingAlert updatedAlert = transition(alert, AlertStatus.FOUND);
 
         // Send notification
         Map<String, String> data = Map.of("alertId", updatedAlert.getId().toString(), "type", "PERSON_FOUND");
@@ -289,7 +330,58 @@ public class AlertService {
         return mapToAlertResponse(updatedAlert);
     }
 
-    @Caching(evict = {@CacheEvict(value = "alertById", key = "#id"), @CacheEvict(value = "alerts", allEntries = true), @CacheEvict(value = "userAlerts", key = "#userId")})
+    /**
+     * Move an alert to a new status and propagate it to everything that depends on status: the poster's
+     * stats, the similarity, search and geo indexes, trending, listing cache generations and cached
+     * responses. Other fields the caller changed on the alert are saved with it. Leaderboards rank alerts
+     * of every status, so they are not touched.
+     */
+    @Caching(evict = {@CacheEvict(value = "alertById", key = "#alert.id"), @CacheEvict(value = "userAlerts", key = "#alert.postedBy.id")})
+    public MissingAlert changeStatus(MissingAlert alert, AlertStatus status) {
+        log.info("Changing status of alert {} to {}", alert.getId(), status);
+        return transition(alert, status);
+    }
+
+    private MissingAlert transition(MissingAlert alert, AlertStatus status) {
+        return transition(alert, status, alert.getLocation(), false);
+    }
+
+    /**
+     * As {@link #transition(MissingAlert, AlertStatus)} for callers that also edited the alert: listings are
+     * invalidated under {@code locationBefore} as well, even when the status stays the same.
+     */
+    private MissingAlert transition(MissingAlert alert, AlertStatus status, String locationBefore, boolean edited) {
+        Long alertId = alert.getId();
+        AlertStatus oldStatus = alert.getStatus();
+        alert.setStatus(status);
+        if (status == AlertStatus.FOUND && alert.getFoundAt() == null) {
+            alert.setFoundAt(LocalDateTime.now());
+        }
+
+        MissingAlert savedAlert = alertRepository.save(alert);
+        if (status != oldStatus) {
+            if (status == AlertStatus.FOUND) {
+                userStatsService.alertFound(savedAlert.getPostedBy().getId());
+            } else if (oldStatus == AlertStatus.FOUND) {
+                userStatsService.alertReopened(savedAlert.getPostedBy().getId());
+            }
+            AlertAttributes attributes = AlertAttributes.of(savedAlert);
+            TransactionHooks.afterCommit(() -> similarityIndexService.updateAttributes(alertId, attributes));
+            if (status == AlertStatus.CLOSED) {
+                trendingService.forget(alertId);
+            }
+        }
+        if (status != oldStatus || edited) {
+            cacheGenerations.alertChanged(locationBefore, oldStatus, savedAlert.getLocation(), status);
+        }
+        // Re-indexed even without a status change: callers may have changed flags or the description
+        alertSearchService.index(savedAlert);
+        alertGeoService.index(savedAlert);
+        responseCache.alertChanged(alertId);
+        return savedAlert;
+    }
+
+    @Caching(evict = {@CacheEvict(value = "alertById", key = "#id"), @CacheEvict(value = "userAlerts", key = "#userId")})
     public void deleteAlert(Long id, Long userId, boolean isAdmin) {
         log.info("Deleting alert: {} by user: {}, isAdmin: {}", id, userId, isAdmin);
 
@@ -303,26 +395,63 @@ public class AlertService {
             cloudinaryService.deleteImage(alert.getImageUrl());
         }
 
+        // Votes and comments are deleted with the alert; take their contribution out of the stats first
+        int score = (int) (voteRepository.countByAlertIdAndType(id, VoteType.UP) - voteRepository.countByAlertIdAndType(id, VoteType.DOWN));
+        userStatsService.alertDeleted(alert.getPostedBy().getId(), alert.getStatus() == AlertStatus.FOUND, score);
+        for (Object[] row : commentRepository.countByAuthorForAlert(id, CommentStatus.ACTIVE)) {
+            userStatsService.commentsRemoved((Long) row[0], ((Number) row[1]).intValue());
+        }
+
         alertRepository.delete(alert);
+        leaderboardService.alertDeleted(id);
+        trendingService.forget(id);
+        alertSearchService.remove(id);
+        alertGeoService.remove(id);
+        cacheGenerations.alertDeleted(alert.getLocation(), alert.getStatus());
+        responseCache.alertChanged(id);
+        alertEmbeddingService.delete(id);
+        TransactionHooks.afterCommit(() -> similarityIndexService.remove(id));
         log.info("Alert {} deleted successfully", id);
     }
 
     @Cacheable(value = "userAlerts", key = "#userId")
     public List<AlertResponse> getUserAlerts(Long userId) {
         log.info("Fetching user alerts for user: {}", userId);
-        List<MissingAlert> alerts = alertRepository.findByPostedByIdOrderByCreatedAtDesc(userId);
-        return alerts.stream().map(this::mapToAlertResponse).collect(Collectors.toList());
+        return alertRepository.findSummariesByPostedBy(userId).stream().map(AlertSummary::toResponse).collect(Collectors.toList());
     }
 
-    @Caching(evict = {@CacheEvict(value = "alertById", key = "#id"), @CacheEvict(value = "alerts", allEntries = true)})
+    @CacheEvict(value = "alertById", key = "#id")
     public void incrementReportCount(Long id) {
         log.info("Incrementing report count for alert: {}", id);
         MissingAlert alert = alertRepository.findById(id).orElseThrow(() -> new AlertNotFoundException("Alert not found with id: " + id));
         alert.setReportCount(alert.getReportCount() + 1);
         alertRepository.save(alert);
+        // Listings keep the old count until their TTL; only the single-alert views are refreshed
+        responseCache.alertChanged(id);
+    }
+
+    /**
+     * Keep the stored embedding and the index in step with image, status, location and coordinate changes.
+     */
+    private void syncSimilarityIndex(MissingAlert alert, float[] newEmbedding) {
+        Long alertId = alert.getId();
+        AlertAttributes attributes = AlertAttributes.of(alert);
+        if (newEmbedding != null) {
+            AlertEmbedding embedding = alertEmbeddingService.save(alertId, newEmbedding);
+            LocalDateTime version = embedding.getUpdatedAt();
+            TransactionHooks.afterCommit(() -> similarityIndexService.upsert(alertId, newEmbedding, version, attributes));
+        } else if (similarityIndexService.contains(alertId)) {
+            TransactionHooks.afterCommit(() -> similarityIndexService.updateAttributes(alertId, attributes));
+        } else {
+            alertEmbeddingService.findCurrent(alertId).ifPresent(embedding -> {
+                float[] vector = alertEmbeddingService.toVector(embedding);
+                LocalDateTime version = embedding.getUpdatedAt();
+                TransactionHooks.afterCommit(() -> similarityIndexService.upsert(alertId, vector, version, attributes));
+            });
+        }
     }
 
     private AlertResponse mapToAlertResponse(MissingAlert alert) {
-        return AlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).imageUrl(alert.getImageUrl()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).updatedAt(alert.getUpdatedAt()).foundAt(alert.getFoundAt()).postedBy(AlertResponse.UserInfo.builder().id(alert.getPostedBy().getId()).name(alert.getPostedBy().getName()).email(alert.getPostedBy().getEmail()).build()).build();
+        return AlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).latitude(alert.getLatitude()).longitude(alert.getLongitude()).imageUrl(alert.getImageUrl()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).updatedAt(alert.getUpdatedAt()).foundAt(alert.getFoundAt()).postedBy(AlertResponse.UserInfo.builder().id(alert.getPostedBy().getId()).name(alert.getPostedBy().getName()).email(alert.getPostedBy().getEmail()).build()).build();
     }
 }
\ No newline at end of file
@@ -17,7 +17,7 @@ public class CacheService {
     @Autowired
     private CommentRepository commentRepository;
 
-    @Cacheable(value = "alertComments", key = "#alertId")
+    @Cacheable(value = "alertComments", key = "#alertId", sync = true)
     public List<CommentResponse> getCachedComments(Long alertId) {
         List<Comment> rootComments = commentRepository.findByAlertIdAndParentIsNull(alertId);
 
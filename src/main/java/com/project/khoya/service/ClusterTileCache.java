@@ -0,0 +1,69 @@
+package com.project.khoya.service;
+
+import com.project.khoya.dto.AlertClusterResponse;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * LRU of computed cluster tiles. Clusters at geohash precision p are computed per tile, the cell at
+ * precision p - 2 (at most 1024 clusters per tile), and cached under tile + precision. A change to one
+ * alert drops only the tiles that contain it: one per cluster precision.
+ */
+class ClusterTileCache {
+
+    private final int maxTiles;
+    private final int maxClusterPrecision;
+    private final Map<String, List<AlertClusterResponse.Cluster>> tiles;
+    // Bumped on every invalidation; a tile computed across a bump may be stale and is not stored
+    private long invalidations;
+
+    ClusterTileCache(int maxTiles, int maxClusterPrecision) {
+        this.maxTiles = maxTiles;
+        this.maxClusterPrecision = maxClusterPrecision;
+        this.tiles = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<AlertClusterResponse.Cluster>> eldest) {
+                return size() > ClusterTileCache.this.maxTiles;
+            }
+        };
+    }
+
+    static int tilePrecision(int clusterPrecision) {
+        return Math.max(0, clusterPrecision - 2);
+    }
+
+    List<AlertClusterResponse.Cluster> get(String tile, int clusterPrecision, Function<String, List<AlertClusterResponse.Cluster>> compute) {
+        String key = tile + "/" + clusterPrecision;
+        long seen;
+        synchronized (this) {
+            List<AlertClusterResponse.Cluster> cached = tiles.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            seen = invalidations;
+        }
+
+        List<AlertClusterResponse.Cluster> computed = compute.apply(tile);
+        synchronized (this) {
+            if (seen == invalidations) {
+                tiles.put(key, computed);
+            }
+        }
+        return computed;
+    }
+
+    synchronized void invalidate(String geohash) {
+        invalidations++;
+        for (int precision = 1; precision <= maxClusterPrecision; precision++) {
+            tiles.remove(geohash.substring(0, tilePrecision(precision)) + "/" + precision);
+        }
+    }
+
+    synchronized void clear() {
+        invalidations++;
+        tiles.clear();
+    }
+}
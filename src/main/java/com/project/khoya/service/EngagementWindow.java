@@ -0,0 +1,81 @@
+package com.project.khoya.service;
+
+import java.util.Arrays;
+
+/**
+ * Engagement counts of one alert over a sliding window of coarse time buckets. The buckets form a ring
+ * indexed by epoch bucket (epoch minute divided by the bucket width); a bucket still holding an older
+ * period is reset when that slot is reused.
+ */
+class EngagementWindow {
+
+    static final int VOTES = 0;
+    static final int COMMENTS = 1;
+    static final int SHARES = 2;
+    private static final int KINDS = 3;
+
+    private final int buckets;
+    // counts[bucket * KINDS + kind]
+    private final int[] counts;
+    // Epoch bucket each slot currently holds, -1 when empty
+    private final long[] slotBucket;
+
+    private volatile String location;
+    private long lastBucket = -1;
+
+    EngagementWindow(int buckets, String location) {
+        this.buckets = buckets;
+        this.counts = new int[buckets * KINDS];
+        this.slotBucket = new long[buckets];
+        this.location = location;
+        Arrays.fill(slotBucket, -1L);
+    }
+
+    synchronized void record(int kind, long bucket, int amount) {
+        int slot = (int) Math.floorMod(bucket, (long) buckets);
+        long held = slotBucket[slot];
+        if (held > bucket) {
+            // The slot already holds a later bucket, so this event has slid out of the window
+            return;
+        }
+        if (held != bucket) {
+            Arrays.fill(counts, slot * KINDS, slot * KINDS + KINDS, 0);
+            slotBucket[slot] = bucket;
+        }
+        counts[slot * KINDS + kind] += amount;
+        lastBucket = Math.max(lastBucket, bucket);
+    }
+
+    /**
+     * Weighted engagement with each bucket decayed by its age: {@code decay[age]} for age in buckets.
+     */
+    synchronized double hotness(long nowBucket, double[] decay, int voteWeight, int commentWeight, int shareWeight) {
+        double score = 0;
+        for (int slot = 0; slot < buckets; slot++) {
+            long age = nowBucket - slotBucket[slot];
+            if (slotBucket[slot] < 0 || age < 0 || age >= buckets) {
+                continue;
+            }
+            int base = slot * KINDS;
+            int engagement = counts[base + VOTES] * voteWeight + counts[base + COMMENTS] * commentWeight + counts[base + SHARES] * shareWeight;
+            if (engagement != 0) {
+                score += engagement * decay[(int) age];
+            }
+        }
+        return score;
+    }
+
+    synchronized boolean isIdle(long nowBucket) {
+        return nowBucket - lastBucket >= buckets;
+    }
+
+    String location() {
+        return location;
+    }
+
+    void location(String location) {
+        if (location != null) {
+            this.location = location;
+        }
+    }
+}
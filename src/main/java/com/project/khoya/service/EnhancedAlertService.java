@@ -2,19 +2,27 @@ package com.project.khoya.service;
 
 import com.project.khoya.dto.EnhancedAlertListResponse;
 import com.project.khoya.dto.EnhancedAlertResponse;
+import com.project.khoya.dto.EnhancedAlertSliceResponse;
 import com.project.khoya.entity.*;
 import com.project.khoya.repository.*;
+import com.project.khoya.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -28,68 +36,93 @@ public class EnhancedAlertService {
     private final VoteRepository voteRepository;
     private final AlertReportRepository reportRepository;
     private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
+    private final AlertLeaderboardService leaderboardService;
+    private final TrendingService trendingService;
 
+    @Transactional(readOnly = true)
     public EnhancedAlertListResponse getAlertsWithSocialData(int page, int size, String location, AlertStatus status, String sortBy, Long currentUserId) {
 
         Sort sort = determineSorting(sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
         Page<MissingAlert> alertPage = getFilteredAlerts(location, status, pageable);
-        List<Long> alertIds = alertPage.getContent().stream().map(MissingAlert::getId).toList();
 
-        // Batch load vote data for performance
-        Map<Long, VoteData> voteDataMap = getVoteDataForAlerts(alertIds, currentUserId);
-        Map<Long, Long> commentCountMap = getCommentCountsForAlerts(alertIds);
+        // Batch load social data for the whole page
+        SocialData socialData = loadSocialData(alertPage.getContent(), currentUserId);
 
-        List<EnhancedAlertResponse> alertResponses = alertPage.getContent().stream().map(alert -> mapToEnhancedAlertResponse(alert, currentUserId, voteDataMap, commentCountMap)).collect(Collectors.toList());
+        List<EnhancedAlertResponse> alertResponses = alertPage.getContent().stream().map(alert -> mapToEnhancedAlertResponse(alert, currentUserId, socialData)).collect(Collectors.toList());
 
         return EnhancedAlertListResponse.builder().alerts(alertResponses).page(alertPage.getNumber()).size(alertPage.getSize()).totalElements(alertPage.getTotalElements()).totalPages(alertPage.getTotalPages()).isFirst(alertPage.isFirst()).isLast(alertPage.isLast()).sortBy(sortBy).build();
     }
 
+    /**
+     * Cursor-based variant of {@link #getAlertsWithSocialData}: seeks past the sort-key values in the cursor
+     * (with id as tie-breaker) instead of skipping an offset, and runs no count query.
+     */
+    @Transactional(readOnly = true)
+    public EnhancedAlertSliceResponse getAlertsWithSocialDataByCursor(String cursor, int size, String location, AlertStatus status, String sortBy, Long currentUserId) {
+        String sortKey = sortBy != null ? sortBy.toLowerCase() : "recent";
+        Sort sort = determineSorting(sortKey);
+        Sort keysetSort = sort.and(Sort.by("oldest".equals(sortKey) ? Sort.Direction.ASC : Sort.Direction.DESC, "id"));
+
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, sortKey, keysetSort);
+        Window<MissingAlert> window = alertRepository.findBy(AlertSpecifications.matching(location, status).and(AlertSpecifications.fetchPostedBy()), query -> query.sortBy(keysetSort).limit(size).scroll(position));
+
+        SocialData socialData = loadSocialData(window.getContent(), currentUserId);
+        List<EnhancedAlertResponse> alertResponses = window.getContent().stream().map(alert -> mapToEnhancedAlertResponse(alert, currentUserId, socialData)).collect(Collectors.toList());
+        String nextCursor = window.hasNext() && !window.isEmpty() ? KeysetCursor.encode(sortKey, window.positionAt(window.size() - 1)) : null;
+
+        return EnhancedAlertSliceResponse.builder().alerts(alertResponses).size(size).hasNext(window.hasNext()).nextCursor(nextCursor).sortBy(sortKey).build();
+    }
+
+    @Transactional(readOnly = true)
     public EnhancedAlertResponse getAlertWithSocialData(Long alertId, Long currentUserId) {
         MissingAlert alert = alertRepository.findById(alertId).orElseThrow(() -> new RuntimeException("Alert not found"));
 
-        // Get individual vote data
-        VoteData voteData = getVoteDataForAlert(alertId, currentUserId);
-        long commentCount = commentRepository.countByAlertIdAndStatus(alertId, CommentStatus.ACTIVE);
-
-        return mapToEnhancedAlertResponse(alert, currentUserId, voteData, commentCount);
+        SocialData socialData = loadSocialData(List.of(alert), currentUserId);
+        return mapToEnhancedAlertResponse(alert, currentUserId, socialData);
     }
 
-    public List<EnhancedAlertResponse> getTrendingAlerts(int limit, Long currentUserId) {
-        // Simple trending algorithm based on recent engagement
-        LocalDateTime since = LocalDateTime.now().minusDays(7);
-        List<MissingAlert> alerts = alertRepository.findRecentAlerts(since).stream().limit(limit).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<EnhancedAlertResponse> getTrendingAlerts(int limit, String location, Long currentUserId) {
+        // Ranked by the trending engine; only the top entries are loaded
+        List<TrendingService.TrendingEntry> trending = trendingService.getTrending(location, limit);
+        List<MissingAlert> alerts = findAllInOrder(trending.stream().map(TrendingService.TrendingEntry::alertId).toList());
+        Map<Long, Double> hotness = trending.stream().collect(Collectors.toMap(TrendingService.TrendingEntry::alertId, TrendingService.TrendingEntry::hotness));
 
+        SocialData socialData = loadSocialData(alerts, currentUserId);
         return alerts.stream().map(alert -> {
-            VoteData voteData = getVoteDataForAlert(alert.getId(), currentUserId);
-            long commentCount = commentRepository.countByAlertIdAndStatus(alert.getId(), CommentStatus.ACTIVE);
-            EnhancedAlertResponse response = mapToEnhancedAlertResponse(alert, currentUserId, voteData, commentCount);
+            EnhancedAlertResponse response = mapToEnhancedAlertResponse(alert, currentUserId, socialData);
             response.setTrending(true);
+            response.setEngagementScore(hotness.get(alert.getId()));
             return response;
         }).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<EnhancedAlertResponse> getTopRatedAlerts(int limit, Long currentUserId) {
         // Get alerts with highest scores
-        List<MissingAlert> alerts = alertRepository.findAll().stream().sorted((a1, a2) -> Integer.compare(a2.getScore(), a1.getScore())).limit(limit).collect(Collectors.toList());
+        List<Long> rankedIds = leaderboardService.topByScore(limit);
+        List<MissingAlert> alerts = rankedIds != null ? findAllInOrder(rankedIds) : alertRepository.findAll(PageRequest.of(0, limit, Sort.by("score").descending())).getContent();
 
-        return alerts.stream().map(alert -> {
-            VoteData voteData = getVoteDataForAlert(alert.getId(), currentUserId);
-            long commentCount = commentRepository.countByAlertIdAndStatus(alert.getId(), CommentStatus.ACTIVE);
-            return mapToEnhancedAlertResponse(alert, currentUserId, voteData, commentCount);
-        }).collect(Collectors.toList());
+        SocialData socialData = loadSocialData(alerts, currentUserId);
+        return alerts.stream().map(alert -> mapToEnhancedAlertResponse(alert, currentUserId, socialData)).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<EnhancedAlertResponse> getMostCommentedAlerts(int limit, Long currentUserId) {
         // Get alerts with most comments
-        List<MissingAlert> alerts = alertRepository.findAll().stream().sorted((a1, a2) -> Integer.compare(a2.getCommentCount(), a1.getCommentCount())).limit(limit).collect(Collectors.toList());
+        List<Long> rankedIds = leaderboardService.topByComments(limit);
+        List<MissingAlert> alerts = rankedIds != null ? findAllInOrder(rankedIds) : alertRepository.findAll(PageRequest.of(0, limit, Sort.by("commentCount").descending())).getContent();
 
-        return alerts.stream().map(alert -> {
-            VoteData voteData = getVoteDataForAlert(alert.getId(), currentUserId);
-            long commentCount = alert.getCommentCount();
-            return mapToEnhancedAlertResponse(alert, currentUserId, voteData, commentCount);
-        }).collect(Collectors.toList());
+        SocialData socialData = loadSocialData(alerts, currentUserId);
+        return alerts.stream().map(alert -> mapToEnhancedAlertResponse(alert, currentUserId, socialData)).collect(Collectors.toList());
+    }
+
+    private List<MissingAlert> findAllInOrder(List<Long> ids) {
+        Map<Long, MissingAlert> byId = alertRepository.findAllById(ids).stream().collect(Collectors.toMap(MissingAlert::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     private Sort determineSorting(String sortBy) {
@@ -118,33 +151,53 @@ public class EnhancedAlertService {
         }
     }
 
-    private Map<Long, VoteData> getVoteDataForAlerts(List<Long> alertIds, Long currentUserId) {
-        return alertIds.stream().collect(Collectors.toMap(Function.identity(), alertId -> getVoteDataForAlert(alertId, currentUserId)));
-    }
+    /**
+     * Load votes, comment counts and author stats for a batch of alerts with a fixed number of
+     * grouped queries, independent of the batch size. Author stats come from the user_stats read model.
+     */
+    private SocialData loadSocialData(List<MissingAlert> alerts, Long currentUserId) {
+        if (alerts.isEmpty()) {
+            return new SocialData(Map.of(), Map.of(), Map.of());
+        }
 
-    private VoteData getVoteDataForAlert(Long alertId, Long currentUserId) {
-        long upvotes = voteRepository.countByAlertIdAndType(alertId, VoteType.UP);
-        long downvotes = voteRepository.countByAlertIdAndType(alertId, VoteType.DOWN);
+        List<Long> alertIds = alerts.stream().map(MissingAlert::getId).toList();
+        Set<Long> authorIds = alerts.stream().map(alert -> alert.getPostedBy().getId()).collect(Collectors.toSet());
 
-        VoteType userVote = null;
+        // Pull the authors into the persistence context so the lazy postedBy proxies resolve without a query each
+        userRepository.findAllById(authorIds);
+
+        Map<Long, int[]> voteCounts = new HashMap<>();
+        for (Object[] row : voteRepository.getVoteCountsForAlerts(alertIds)) {
+            int[] counts = voteCounts.computeIfAbsent((Long) row[0], id -> new int[2]);
+            counts[row[1] == VoteType.UP ? 0 : 1] = ((Number) row[2]).intValue();
+        }
+
+        Map<Long, VoteType> userVotes = new HashMap<>();
         if (currentUserId != null) {
-            userVote = voteRepository.findByUserIdAndAlertId(currentUserId, alertId).map(Vote::getType).orElse(null);
+            for (Object[] row : voteRepository.getUserVotesForAlerts(currentUserId, alertIds)) {
+                userVotes.put((Long) row[0], (VoteType) row[1]);
+            }
         }
 
-        return VoteData.builder().upvotes((int) upvotes).downvotes((int) downvotes).score((int) (upvotes - downvotes)).userVote(userVote).build();
-    }
+        Map<Long, VoteData> voteData = new HashMap<>();
+        for (Long alertId : alertIds) {
+            int[] counts = voteCounts.getOrDefault(alertId, new int[2]);
+            voteData.put(alertId, VoteData.builder().upvotes(counts[0]).downvotes(counts[1]).score(counts[0] - counts[1]).userVote(userVotes.get(alertId)).build());
+        }
 
-    private Map<Long, Long> getCommentCountsForAlerts(List<Long> alertIds) {
-        return alertIds.stream().collect(Collectors.toMap(Function.identity(), alertId -> commentRepository.countByAlertIdAndStatus(alertId, CommentStatus.ACTIVE)));
-    }
+        Map<Long, Long> commentCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countByAlertIdsAndStatus(alertIds, CommentStatus.ACTIVE)) {
+            commentCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
 
-    private EnhancedAlertResponse mapToEnhancedAlertResponse(MissingAlert alert, Long currentUserId, Map<Long, VoteData> voteDataMap, Map<Long, Long> commentCountMap) {
-        VoteData voteData = voteDataMap.get(alert.getId());
-        Long commentCount = commentCountMap.get(alert.getId());
-        return mapToEnhancedAlertResponse(alert, currentUserId, voteData, commentCount != null ? commentCount : 0L);
+        return new SocialData(voteData, commentCounts, userStatsService.getStats(authorIds));
     }
 
-    private EnhancedAlertResponse mapToEnhancedAlertResponse(MissingAlert alert, Long currentUserId, VoteData voteData, long commentCount) {
+    private EnhancedAlertResponse mapToEnhancedAlertResponse(MissingAlert alert, Long currentUserId, SocialData socialData) {
+        VoteData voteData = socialData.voteData().get(alert.getId());
+        long commentCount = socialData.commentCounts().getOrDefault(alert.getId(), 0L);
+        UserStats authorStats = socialData.authorStats().get(alert.getPostedBy().getId());
+
         // Check permissions
         boolean canEdit = alert.getPostedBy().getId().equals(currentUserId);
         boolean canDelete = canEdit; // For now, same permissions
@@ -153,11 +206,9 @@ public class EnhancedAlertService {
         // Calculate engagement score (simple formula)
         double engagementScore = calculateEngagementScore(voteData.getScore(), (int) commentCount, alert.getCreatedAt());
 
-        // Get user info with additional stats
         User author = alert.getPostedBy();
-        long userAlertCount = alertRepository.countByPostedById(author.getId());
 
-        return EnhancedAlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).imageUrl(alert.getImageUrl()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).updatedAt(alert.getUpdatedAt()).foundAt(alert.getFoundAt()).postedBy(EnhancedAlertResponse.UserInfo.builder().id(author.getId()).name(author.getName()).email(author.getEmail()).reputation(calculateUserReputation(author.getId())).alertCount((int) userAlertCount).build()).upvotes(voteData.getUpvotes()).downvotes(voteData.getDownvotes()).score(voteData.getScore()).commentCount((int) commentCount).userVote(voteData.getUserVote()).canEdit(canEdit).canDelete(canDelete).canReport(canReport).engagementScore(engagementScore).trending(false) // Will be set by specific methods
+        return EnhancedAlertResponse.builder().id(alert.getId()).title(alert.getTitle()).description(alert.getDescription()).location(alert.getLocation()).imageUrl(alert.getImageUrl()).status(alert.getStatus()).reportCount(alert.getReportCount()).createdAt(alert.getCreatedAt()).updatedAt(alert.getUpdatedAt()).foundAt(alert.getFoundAt()).postedBy(EnhancedAlertResponse.UserInfo.builder().id(author.getId()).name(author.getName()).email(author.getEmail()).reputation(authorStats != null ? authorStats.getReputation() : 0).alertCount(authorStats != null ? authorStats.getAlertCount() : 0).build()).upvotes(voteData.getUpvotes()).downvotes(voteData.getDownvotes()).score(voteData.getScore()).commentCount((int) commentCount).userVote(voteData.getUserVote()).canEdit(canEdit).canDelete(canDelete).canReport(canReport).engagementScore(engagementScore).trending(false) // Will be set by specific methods
                 .visibility(determineVisibility(alert)).build();
     }
 
@@ -169,12 +220,6 @@ public class EnhancedAlertService {
         return (double) (score + commentCount * 2) / hoursOld;
     }
 
-    private Integer calculateUserReputation(Long userId) {
-        // Simple reputation calculation
-        List<MissingAlert> userAlerts = alertRepository.findByPostedByIdOrderByCreatedAtDesc(userId);
-        return userAlerts.stream().mapToInt(alert -> alert.getUpvotes() - alert.getDownvotes()).sum();
-    }
-
     private EnhancedAlertResponse.AlertVisibility determineVisibility(MissingAlert alert) {
         if (alert.isAutoDeleted()) {
             return EnhancedAlertResponse.AlertVisibility.ARCHIVED;
@@ -199,4 +244,8 @@ public class EnhancedAlertService {
         private Integer score;
         private VoteType userVote;
     }
-}
\ No newline at end of file
+
+    // Social data of one page, keyed by alert id (votes, comments) and author id (stats)
+    private record SocialData(Map<Long, VoteData> voteData, Map<Long, Long> commentCounts, Map<Long, UserStats> authorStats) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.khoya.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline geocoding of free-text alert locations against a gazetteer CSV ({@code name,latitude,longitude}).
+ * "Koregaon Park, Pune" resolves to the first comma-separated part that is a known place, most specific first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingService {
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${app.geo.gazetteer:classpath:geo/gazetteer.csv}")
+    private String gazetteerLocation;
+
+    private Map<String, double[]> places = Map.of();
+
+    public record Coordinates(double latitude, double longitude) {
+    }
+
+    @PostConstruct
+    public void load() {
+        Resource resource = resourceLoader.getResource(gazetteerLocation);
+        if (!resource.exists()) {
+            log.warn("Gazetteer {} not found; alerts are only geocoded from client coordinates", gazetteerLocation);
+            return;
+        }
+
+        Map<String, double[]> loaded = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    log.warn("Skipping malformed gazetteer line: {}", line);
+                    continue;
+                }
+                try {
+                    loaded.put(normalize(fields[0]), new double[]{Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())});
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping malformed gazetteer line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load gazetteer {}: {}", gazetteerLocation, e.getMessage());
+            return;
+        }
+        places = loaded;
+        log.info("Loaded {} gazetteer places", loaded.size());
+    }
+
+    public Optional<Coordinates> geocode(String location) {
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        double[] point = places.get(normalize(location));
+        if (point == null) {
+            for (String part : location.split(",")) {
+                point = places.get(normalize(part));
+                if (point != null) {
+                    break;
+                }
+            }
+        }
+        return point == null ? Optional.empty() : Optional.of(new Coordinates(point[0], point[1]));
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,186 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.utils.GeoHash;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact per-slot metadata for filtering similarity candidates before (or after) vector scoring:
+ * status as a byte, createdAt as epoch millis, and location as an id into a dictionary of distinct
+ * lowercased locations, so a substring filter is evaluated once per distinct location, not per alert.
+ * Coordinates are kept as doubles (NaN when unknown) for radius filters, which check the bounding box before
+ * computing a distance.
+ * <p>
+ * Not thread-safe; {@link SimilarityIndexService} guards all access.
+ */
+class AlertAttributeIndex {
+
+    private static final byte UNKNOWN_STATUS = -1;
+    private static final int NO_LOCATION = -1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] statuses = new byte[0];
+    private long[] createdAt = new long[0];
+    private int[] locationIds = new int[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+
+    private final List<String> locations = new ArrayList<>();
+    private final Map<String, Integer> locationIdByName = new HashMap<>();
+
+    AlertAttributeIndex() {
+        ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    void put(int slot, AlertAttributes attributes) {
+        ensureCapacity(slot + 1);
+        statuses[slot] = attributes.status() != null ? (byte) attributes.status().ordinal() : UNKNOWN_STATUS;
+        createdAt[slot] = toMillis(attributes.createdAt());
+        locationIds[slot] = locationId(attributes.location());
+        boolean located = attributes.latitude() != null && attributes.longitude() != null;
+        latitudes[slot] = located ? attributes.latitude() : Double.NaN;
+        longitudes[slot] = located ? attributes.longitude() : Double.NaN;
+    }
+
+    /**
+     * Slots with no attributes yet (e.g. reopened from disk before reconciliation) never match.
+     */
+    void clear(int slot) {
+        if (slot < statuses.length) {
+            statuses[slot] = UNKNOWN_STATUS;
+        }
+    }
+
+    Filter compile(SimilarityQuery query) {
+        return new Filter(query);
+    }
+
+    /**
+     * Copy the first {@code count} slots that match into {@code matching} (at least {@code count} long) and
+     * return how many did.
+     */
+    int filter(int[] slots, int count, Filter filter, int[] matching) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            if (filter.matches(slot)) {
+                matching[matched++] = slot;
+            }
+        }
+        return matched;
+    }
+
+    final class Filter {
+        private final int statusMask;
+        private final long from;
+        private final long to;
+        private final BitSet matchingLocations;
+        // Circle centre and radius, plus its bounding box {minLat, minLon, maxLat, maxLon}; null without a radius
+        private final double[] box;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+
+        private Filter(SimilarityQuery query) {
+            int mask = 0;
+            for (AlertStatus status : query.effectiveStatuses()) {
+                mask |= 1 << status.ordinal();
+            }
+            this.statusMask = mask;
+            this.from = query.getCreatedAfter() != null ? toMillis(query.getCreatedAfter()) : Long.MIN_VALUE;
+            this.to = query.getCreatedBefore() != null ? toMillis(query.getCreatedBefore()) : Long.MAX_VALUE;
+
+            if (query.hasRadius()) {
+                this.latitude = query.getLatitude();
+                this.longitude = query.getLongitude();
+                this.radiusKm = query.getRadiusKm();
+                this.box = GeoHash.boundingBox(latitude, longitude, radiusKm);
+            } else {
+                this.latitude = 0;
+                this.longitude = 0;
+                this.radiusKm = 0;
+                this.box = null;
+            }
+
+            String location = query.getLocation();
+            if (location == null || location.isBlank()) {
+                this.matchingLocations = null;
+            } else {
+                String needle = location.trim().toLowerCase();
+                this.matchingLocations = new BitSet(locations.size());
+                for (int id = 0; id < locations.size(); id++) {
+                    if (locations.get(id).contains(needle)) {
+                        matchingLocations.set(id);
+                    }
+                }
+            }
+        }
+
+        boolean matches(int slot) {
+            if (slot >= statuses.length) {
+                return false;
+            }
+            byte status = statuses[slot];
+            if (status == UNKNOWN_STATUS || (statusMask & (1 << status)) == 0) {
+                return false;
+            }
+            long created = createdAt[slot];
+            if ((from != Long.MIN_VALUE || to != Long.MAX_VALUE) && (created == NO_TIMESTAMP || created < from || created > to)) {
+                return false;
+            }
+            if (box != null && !withinRadius(latitudes[slot], longitudes[slot])) {
+                return false;
+            }
+            if (matchingLocations != null) {
+                int locationId = locationIds[slot];
+                return locationId != NO_LOCATION && matchingLocations.get(locationId);
+            }
+            return true;
+        }
+
+        // NaN coordinates fail the box comparisons
+        private boolean withinRadius(double lat, double lon) {
+            if (!(lat >= box[0] && lat <= box[2] && lon >= box[1] && lon <= box[3])) {
+                return false;
+            }
+            return GeoHash.distanceKm(latitude, longitude, lat, lon) <= radiusKm;
+        }
+    }
+
+    private int locationId(String location) {
+        if (location == null || location.isBlank()) {
+            return NO_LOCATION;
+        }
+        return locationIdByName.computeIfAbsent(location.trim().toLowerCase(), name -> {
+            locations.add(name);
+            return locations.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int slots) {
+        if (slots <= statuses.length) {
+            return;
+        }
+        int newCapacity = Math.max(slots, statuses.length * 2);
+        int oldCapacity = statuses.length;
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        createdAt = Arrays.copyOf(createdAt, newCapacity);
+        locationIds = Arrays.copyOf(locationIds, newCapacity);
+        latitudes = Arrays.copyOf(latitudes, newCapacity);
+        longitudes = Arrays.copyOf(longitudes, newCapacity);
+        Arrays.fill(statuses, oldCapacity, newCapacity, UNKNOWN_STATUS);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : NO_TIMESTAMP;
+    }
+}
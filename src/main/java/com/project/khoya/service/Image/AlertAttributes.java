@@ -0,0 +1,16 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.MissingAlert;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filterable metadata kept next to each indexed embedding.
+ */
+public record AlertAttributes(AlertStatus status, LocalDateTime createdAt, String location, Double latitude, Double longitude) {
+
+    public static AlertAttributes of(MissingAlert alert) {
+        return new AlertAttributes(alert.getStatus(), alert.getCreatedAt(), alert.getLocation(), alert.getLatitude(), alert.getLongitude());
+    }
+}
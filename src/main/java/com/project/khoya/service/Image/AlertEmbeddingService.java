@@ -0,0 +1,77 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertEmbedding;
+import com.project.khoya.repository.AlertEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Reads and writes alert embeddings in their own table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertEmbeddingService {
+
+    private final AlertEmbeddingRepository embeddingRepository;
+    private final FeatureExtractionService featureExtractionService;
+
+    public AlertEmbedding save(Long alertId, float[] features) {
+        AlertEmbedding embedding = embeddingRepository.findById(alertId).orElseGet(AlertEmbedding::new);
+        embedding.setAlertId(alertId);
+        embedding.setEmbedding(featureExtractionService.floatArrayToBytes(features));
+        embedding.setModelVersion(featureExtractionService.getModelVersion());
+        return embeddingRepository.save(embedding);
+    }
+
+    /**
+     * Stored vector of an alert, if it was produced by the current model.
+     */
+    public Optional<AlertEmbedding> findCurrent(Long alertId) {
+        return embeddingRepository.findById(alertId).filter(embedding -> featureExtractionService.getModelVersion().equals(embedding.getModelVersion()));
+    }
+
+    public float[] toVector(AlertEmbedding embedding) {
+        return featureExtractionService.bytesToFloatArray(embedding.getEmbedding());
+    }
+
+    public void delete(Long alertId) {
+        if (embeddingRepository.existsById(alertId)) {
+            embeddingRepository.deleteById(alertId);
+        }
+    }
+
+    /**
+     * Move vectors still stored on missing_alerts into alert_embeddings. Runs before the similarity index rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateLegacyEmbeddings() {
+        try {
+            int moved = embeddingRepository.backfillFromLegacyColumn(featureExtractionService.getModelVersion());
+            if (moved > 0) {
+                embeddingRepository.clearLegacyColumn();
+                log.info("Moved {} embeddings from missing_alerts to alert_embeddings", moved);
+            }
+        } catch (Exception e) {
+            // Fresh schemas have no legacy column
+            log.debug("No legacy embeddings to migrate: {}", e.getMessage());
+        }
+
+        try {
+            int orphans = embeddingRepository.deleteOrphans();
+            if (orphans > 0) {
+                log.info("Deleted {} embeddings of removed alerts", orphans);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete orphaned embeddings: {}", e.getMessage());
+        }
+    }
+}
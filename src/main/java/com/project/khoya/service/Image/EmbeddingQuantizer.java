@@ -0,0 +1,86 @@
+package com.project.khoya.service.Image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact codes for L2-normalized embeddings, used for a cheap first-pass similarity scan.
+ * <ul>
+ *     <li>INT8: per-vector symmetric scale (max |x| / 127), 1 byte per dimension - 4x smaller</li>
+ *     <li>BINARY: one bit per dimension (above/below the vector mean) - 32x smaller, scored by Hamming distance</li>
+ * </ul>
+ * Codes are resident only: they are derived from the stored vectors at startup, not persisted.
+ */
+@Component
+@Slf4j
+public class EmbeddingQuantizer {
+
+    public enum Mode {
+        NONE, INT8, BINARY
+    }
+
+    private final Mode mode;
+
+    public EmbeddingQuantizer(@Value("${app.similarity.quantization.mode:none}") String mode) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        log.info("Embedding quantization: {}", this.mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.NONE;
+    }
+
+    /**
+     * Write int8 codes into {@code target} at {@code offset} and return the scale that maps them back to floats.
+     */
+    static float quantizeInt8(float[] vector, byte[] target, int offset) {
+        float maxAbs = 0f;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        if (maxAbs == 0f) {
+            return 0f;
+        }
+
+        float scale = maxAbs / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+
+    /**
+     * Write one bit per dimension into {@code target} starting at word {@code offset}: set when the value is
+     * above the vector's mean. CNN embeddings are non-negative after pooling, so a plain sign bit would carry
+     * almost no information.
+     */
+    static void quantizeBinary(float[] vector, long[] target, int offset) {
+        float mean = 0f;
+        for (float value : vector) {
+            mean += value;
+        }
+        mean /= vector.length;
+
+        int words = wordsFor(vector.length);
+        for (int w = 0; w < words; w++) {
+            long word = 0L;
+            int base = w * Long.SIZE;
+            int end = Math.min(base + Long.SIZE, vector.length);
+            for (int i = base; i < end; i++) {
+                if (vector[i] > mean) {
+                    word |= 1L << (i - base);
+                }
+            }
+            target[offset + w] = word;
+        }
+    }
+
+    static int wordsFor(int dimension) {
+        return (dimension + Long.SIZE - 1) / Long.SIZE;
+    }
+}
@@ -0,0 +1,361 @@
+package com.project.khoya.service.Image;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Off-heap slab of alert embeddings in a single memory-mapped file.
+ * <p>
+ * Layout: a 64-byte header, then fixed-size records of {@code [alertId:long][version:long][dimension floats]}.
+ * A record with alertId 0 is free. Scoring reads floats straight out of the mapping, so queries never
+ * materialize per-alert arrays on the heap.
+ * <p>
+ * Not thread-safe; {@link SimilarityIndexService} serializes writes and lets reads run in parallel.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingStore {
+
+    private static final int MAGIC = 0x4B454D42; // "KEMB"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_FORMAT = 4;
+    private static final int OFFSET_DIMENSION = 8;
+    private static final int OFFSET_CAPACITY = 12;
+    private static final int OFFSET_CLEAN = 16;
+
+    private final FeatureExtractionService featureExtractionService;
+    private final SimilarityKernel kernel;
+
+    @Value("${app.similarity.store.path:data/embeddings.slab}")
+    private String storePath;
+
+    private int dimension;
+    private int recordBytes;
+    private int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private FloatBuffer floats;
+
+    private final Map<Long, Integer> slotByAlertId = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Slots released since the last compaction; tombstoned graph nodes may still read them
+    private final List<Integer> releasedSlots = new ArrayList<>();
+    private int highWaterMark = 0;
+    // Dense list of live slots, kept in step with every put and remove so searches never collect them;
+    // livePosition[slot] is the slot's index in it, or -1
+    private int[] live = new int[0];
+    private int[] livePosition = new int[0];
+    private int liveCount = 0;
+
+    @PostConstruct
+    public void open() throws IOException {
+        dimension = featureExtractionService.getFeatureDimension();
+        recordBytes = RECORD_HEADER_BYTES + dimension * Float.BYTES;
+
+        Path path = Paths.get(storePath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (!reopenExisting()) {
+            initialize(INITIAL_CAPACITY);
+        }
+
+        // Marked clean again on orderly shutdown; a crash leaves the slab to be discarded next start
+        mapped.putInt(OFFSET_CLEAN, 0);
+        log.info("Embedding store opened at {} with {} vectors (capacity {})", path, slotByAlertId.size(), capacity);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (mapped != null) {
+            mapped.putInt(OFFSET_CLEAN, 1);
+            mapped.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Write (or overwrite) the vector of an alert and return its slot.
+     */
+    public int put(long alertId, float[] vector, long version) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(String.format("Vector dimension must be %d (got %d)", dimension, vector.length));
+        }
+
+        Integer existing = slotByAlertId.get(alertId);
+        int slot = existing != null ? existing : allocateSlot();
+
+        int floatBase = floatOffset(slot);
+        for (int i = 0; i < dimension; i++) {
+            floats.put(floatBase + i, vector[i]);
+        }
+        int recordOffset = recordOffset(slot);
+        mapped.putLong(recordOffset + 8, version);
+        mapped.putLong(recordOffset, alertId);
+
+        if (existing == null) {
+            slotByAlertId.put(alertId, slot);
+            trackLive(slot);
+        }
+        return slot;
+    }
+
+    public boolean remove(long alertId) {
+        Integer slot = slotByAlertId.remove(alertId);
+        if (slot == null) {
+            return false;
+        }
+        mapped.putLong(recordOffset(slot), 0L);
+        untrackLive(slot);
+        releasedSlots.add(slot);
+        return true;
+    }
+
+    public int releasedSlotCount() {
+        return releasedSlots.size();
+    }
+
+    /**
+     * Make the first {@code count} released slots (in release order) reusable. Only safe once no graph node
+     * refers to them any more.
+     */
+    public void recycleReleasedSlots(int count) {
+        List<Integer> recycled = releasedSlots.subList(0, Math.min(count, releasedSlots.size()));
+        freeSlots.addAll(recycled);
+        recycled.clear();
+    }
+
+    public int slotOf(long alertId) {
+        return slotByAlertId.getOrDefault(alertId, -1);
+    }
+
+    public boolean contains(long alertId) {
+        return slotByAlertId.containsKey(alertId);
+    }
+
+    public long alertIdAt(int slot) {
+        return mapped.getLong(recordOffset(slot));
+    }
+
+    public long versionOf(long alertId) {
+        Integer slot = slotByAlertId.get(alertId);
+        return slot != null ? mapped.getLong(recordOffset(slot) + 8) : Long.MIN_VALUE;
+    }
+
+    public int size() {
+        return slotByAlertId.size();
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Dot product of a query with a stored vector (cosine similarity for unit vectors).
+     */
+    public float dot(float[] query, int slot) {
+        return kernel.dot(query, mapped, vectorOffset(slot));
+    }
+
+    public float dot(int slotA, int slotB) {
+        return kernel.dot(mapped, vectorOffset(slotA), vectorOffset(slotB), dimension);
+    }
+
+    /**
+     * Batch-score a query against {@code count} slots into {@code scores}.
+     */
+    public void dotAll(float[] query, int[] slots, int count, float[] scores) {
+        dotAll(query, slots, count, scores, new int[count]);
+    }
+
+    /**
+     * As {@link #dotAll(float[], int[], int, float[])}, with a caller-owned buffer of at least {@code count}
+     * entries for the byte offsets.
+     */
+    public void dotAll(float[] query, int[] slots, int count, float[] scores, int[] offsets) {
+        for (int i = 0; i < count; i++) {
+            offsets[i] = vectorOffset(slots[i]);
+        }
+        kernel.dotAll(query, mapped, offsets, count, scores);
+    }
+
+    /**
+     * Copy a stored vector into a caller-owned buffer.
+     */
+    public void read(int slot, float[] target) {
+        floats.get(floatOffset(slot), target, 0, dimension);
+    }
+
+    public int[] liveSlots() {
+        return Arrays.copyOf(live, liveCount);
+    }
+
+    public int liveCount() {
+        return liveCount;
+    }
+
+    /**
+     * The store's own live-slot array, valid in {@code [0, liveCount())}. It changes with every write, so
+     * callers read it under the index lock and never modify it.
+     */
+    int[] liveSlotArray() {
+        return live;
+    }
+
+    public void forEachLiveSlot(IntConsumer consumer) {
+        for (int i = 0; i < liveCount; i++) {
+            consumer.accept(live[i]);
+        }
+    }
+
+    public List<Long> alertIds() {
+        return new ArrayList<>(slotByAlertId.keySet());
+    }
+
+    public void flush() {
+        mapped.force();
+    }
+
+    private boolean reopenExisting() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return false;
+        }
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(OFFSET_MAGIC) != MAGIC || header.getInt(OFFSET_FORMAT) != FORMAT_VERSION || header.getInt(OFFSET_DIMENSION) != dimension) {
+            log.warn("Embedding store header does not match (dimension {}), recreating", dimension);
+            return false;
+        }
+        if (header.getInt(OFFSET_CLEAN) != 1) {
+            log.warn("Embedding store was not closed cleanly, recreating");
+            return false;
+        }
+
+        int storedCapacity = header.getInt(OFFSET_CAPACITY);
+        if (channel.size() < (long) HEADER_BYTES + (long) storedCapacity * recordBytes) {
+            log.warn("Embedding store file is truncated, recreating");
+            return false;
+        }
+
+        map(storedCapacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            long alertId = mapped.getLong(recordOffset(slot));
+            if (alertId != 0L) {
+                slotByAlertId.put(alertId, slot);
+                trackLive(slot);
+                highWaterMark = slot + 1;
+            }
+        }
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if (mapped.getLong(recordOffset(slot)) == 0L) {
+                freeSlots.add(slot);
+            }
+        }
+        return true;
+    }
+
+    private void initialize(int initialCapacity) throws IOException {
+        channel.truncate(0);
+        slotByAlertId.clear();
+        freeSlots.clear();
+        releasedSlots.clear();
+        highWaterMark = 0;
+        livePosition = new int[0];
+        liveCount = 0;
+
+        map(initialCapacity);
+        mapped.putInt(OFFSET_MAGIC, MAGIC);
+        mapped.putInt(OFFSET_FORMAT, FORMAT_VERSION);
+        mapped.putInt(OFFSET_DIMENSION, dimension);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        long bytes = (long) HEADER_BYTES + (long) newCapacity * recordBytes;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Embedding store cannot exceed a single 2 GB mapping (" + newCapacity + " vectors requested)");
+        }
+
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        floats = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        capacity = newCapacity;
+        mapped.putInt(OFFSET_CAPACITY, capacity);
+
+        int oldCapacity = livePosition.length;
+        livePosition = Arrays.copyOf(livePosition, newCapacity);
+        Arrays.fill(livePosition, oldCapacity, newCapacity, -1);
+        live = Arrays.copyOf(live, newCapacity);
+    }
+
+    private void trackLive(int slot) {
+        livePosition[slot] = liveCount;
+        live[liveCount++] = slot;
+    }
+
+    // Swap-remove: the last live slot takes the removed one's place
+    private void untrackLive(int slot) {
+        int position = livePosition[slot];
+        int last = live[--liveCount];
+        live[position] = last;
+        livePosition[last] = position;
+        livePosition[slot] = -1;
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.poll();
+        }
+        if (highWaterMark == capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to grow embedding store", e);
+            }
+        }
+        return highWaterMark++;
+    }
+
+    private int recordOffset(int slot) {
+        return HEADER_BYTES + slot * recordBytes;
+    }
+
+    private int vectorOffset(int slot) {
+        return recordOffset(slot) + RECORD_HEADER_BYTES;
+    }
+
+    private int floatOffset(int slot) {
+        return vectorOffset(slot) / Float.BYTES;
+    }
+}
@@ -4,6 +4,7 @@ import ai.djl.Application;
 import ai.djl.MalformedModelException;
 import ai.djl.inference.Predictor;
 import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
 import ai.djl.modality.cv.transform.CenterCrop;
 import ai.djl.modality.cv.transform.Normalize;
 import ai.djl.modality.cv.transform.Resize;
@@ -20,49 +21,151 @@ import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FeatureExtractionService {
 
-    private ZooModel<Image, float[]> model;
+    private final SimilarityKernel similarityKernel;
+
+    public enum ModelState {
+        DISABLED, LOADING, WARMING_UP, READY, FAILED
+    }
+
     private static final int FEATURE_DIMENSION = 2048;
+    // Stored with each embedding; bump when the model or preprocessing changes
+    private static final String MODEL_VERSION = "resnet50-imagenet-v1";
+    private static final int WARM_UP_IMAGE_SIZE = 256;
+
+    @Value("${app.feature-extraction.model.enabled:true}")
+    private boolean modelEnabled;
+
+    // 0 = one predictor per available core
+    @Value("${app.feature-extraction.predictor-pool-size:0}")
+    private int predictorPoolSize;
+
+    @Value("${app.feature-extraction.predictor-timeout-ms:10000}")
+    private long predictorTimeoutMs;
+
+    private volatile ZooModel<Image, float[]> model;
+    private volatile ModelState modelState = ModelState.DISABLED;
+
+    // Predictors are not thread-safe; callers borrow one for the duration of a forward pass
+    private BlockingQueue<Predictor<Image, float[]>> predictorPool;
+    private final List<Predictor<Image, float[]>> allPredictors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Load and warm up the model off the startup path; requests see {@link #getModelState()} until it is READY.
+     */
+    @PostConstruct
+    public void init() {
+        if (!modelEnabled) {
+            log.info("Feature extraction model disabled (app.feature-extraction.model.enabled=false)");
+            return;
+        }
+        modelState = ModelState.LOADING;
+        Thread loader = new Thread(this::loadModel, "feature-model-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadModel() {
+        long start = System.currentTimeMillis();
+        try {
+            Criteria<Image, float[]> criteria = Criteria.builder()
+                    .setTypes(Image.class, float[].class)
+                    .optApplication(Application.CV.IMAGE_CLASSIFICATION)
+                    .optArtifactId("resnet")
+                    .optEngine("PyTorch")
+                    .optTranslator(new FeatureTranslator())
+                    .optProgress(new ProgressBar())
+                    .build();
+            model = criteria.loadModel();
+
+            int poolSize = predictorPoolSize > 0 ? predictorPoolSize : Runtime.getRuntime().availableProcessors();
+            BlockingQueue<Predictor<Image, float[]>> pool = new ArrayBlockingQueue<>(poolSize);
+            for (int i = 0; i < poolSize; i++) {
+                Predictor<Image, float[]> predictor = model.newPredictor();
+                allPredictors.add(predictor);
+                pool.add(predictor);
+            }
 
-//    @PostConstruct
-//    public void init() {
-//
-//        try {
-//            Criteria<Image, float[]> criteria = Criteria.builder()
-//                    .setTypes(Image.class, float[].class)
-//                    .optApplication(Application.CV.IMAGE_CLASSIFICATION)
-//                    .optArtifactId("resnet")
-//                    .optEngine("PyTorch")
-//                    .optTranslator(new FeatureTranslator())
-//                    .optProgress(new ProgressBar())
-//                    .build();
-//            model = criteria.loadModel();
-//
-//        } catch (ModelNotFoundException | MalformedModelException | IOException e) {
-//            log.error("Failed to load ResNet50 model", e);
-//        }
-//    }
+            // One throwaway inference per predictor pays native init and JIT before real traffic
+            modelState = ModelState.WARMING_UP;
+            Image blank = ImageFactory.getInstance().fromImage(new BufferedImage(WARM_UP_IMAGE_SIZE, WARM_UP_IMAGE_SIZE, BufferedImage.TYPE_INT_RGB));
+            for (Predictor<Image, float[]> predictor : pool) {
+                predictor.predict(blank);
+            }
 
-    public float[] extractFeatures(Image image) throws TranslateException {
-        if (model == null) {
-            throw new IllegalStateException("Model not loaded - feature extraction unavailable");
+            predictorPool = pool;
+            modelState = ModelState.READY;
+            log.info("ResNet50 model ready with {} predictors in {} ms", poolSize, System.currentTimeMillis() - start);
+
+        } catch (ModelNotFoundException | MalformedModelException | IOException | TranslateException | RuntimeException e) {
+            modelState = ModelState.FAILED;
+            log.error("Failed to load ResNet50 model", e);
         }
+    }
 
-        try (Predictor<Image, float[]> predictor = model.newPredictor()) {
+    public float[] extractFeatures(Image image) throws TranslateException {
+        Predictor<Image, float[]> predictor = borrowPredictor();
+        try {
             float[] features = predictor.predict(image);
             return l2Normalize(features);
         } catch (Exception e) {
             log.error("Failed to extract features", e);
             throw new TranslateException("Feature extraction failed: " + e.getMessage(), e);
+        } finally {
+            predictorPool.offer(predictor);
+        }
+    }
+
+    /**
+     * Run one batched forward pass over several images on a pooled predictor.
+     * Results are L2-normalized and in input order.
+     */
+    public List<float[]> extractFeatures(List<Image> images) throws TranslateException {
+        if (images.isEmpty()) {
+            return List.of();
+        }
+
+        Predictor<Image, float[]> predictor = borrowPredictor();
+        try {
+            List<float[]> features = predictor.batchPredict(images);
+            return features.stream().map(this::l2Normalize).toList();
+        } finally {
+            predictorPool.offer(predictor);
+        }
+    }
+
+    private Predictor<Image, float[]> borrowPredictor() throws TranslateException {
+        if (modelState != ModelState.READY) {
+            throw new IllegalStateException("Model not loaded - feature extraction unavailable (" + modelState + ")");
+        }
+
+        try {
+            Predictor<Image, float[]> predictor = predictorPool.poll(predictorTimeoutMs, TimeUnit.MILLISECONDS);
+            if (predictor == null) {
+                throw new TranslateException("No predictor available within " + predictorTimeoutMs + " ms");
+            }
+            return predictor;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Interrupted while waiting for a predictor", e);
         }
     }
 
@@ -91,6 +194,27 @@ public class FeatureExtractionService {
     }
 
     public double calculateCosineSimilarity(float[] vec1, float[] vec2) {
+        checkDimensions(vec1, vec2);
+
+        double norm1 = similarityKernel.dot(vec1, vec1);
+        double norm2 = similarityKernel.dot(vec2, vec2);
+        if (norm1 < 1e-12 || norm2 < 1e-12) {
+            return 0.0;
+        }
+
+        return similarityKernel.dot(vec1, vec2) / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
+    /**
+     * Cosine similarity of two vectors that are already unit length (everything extractFeatures returns).
+     * Skips the norm computation.
+     */
+    public double dotProduct(float[] vec1, float[] vec2) {
+        checkDimensions(vec1, vec2);
+        return similarityKernel.dot(vec1, vec2);
+    }
+
+    private void checkDimensions(float[] vec1, float[] vec2) {
         if (vec1 == null || vec2 == null) {
             throw new IllegalArgumentException("Vectors cannot be null");
         }
@@ -100,22 +224,6 @@ public class FeatureExtractionService {
                     String.format("Vector lengths must match (got %d and %d)", vec1.length, vec2.length)
             );
         }
-
-        double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
-
-        for (int i = 0; i < vec1.length; i++) {
-            dotProduct += vec1[i] * vec2[i];
-            norm1 += vec1[i] * vec1[i];
-            norm2 += vec2[i] * vec2[i];
-        }
-
-        if (norm1 < 1e-12 || norm2 < 1e-12) {
-            return 0.0;
-        }
-
-        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
     }
 
     public byte[] floatArrayToBytes(float[] array) {
@@ -144,7 +252,24 @@ public class FeatureExtractionService {
     }
 
     public boolean isModelLoaded() {
-        return model != null;
+        return modelState == ModelState.READY;
+    }
+
+    public ModelState getModelState() {
+        return modelState;
+    }
+
+    public int getPredictorPoolSize() {
+        return allPredictors.size();
+    }
+
+    public int getAvailablePredictors() {
+        BlockingQueue<Predictor<Image, float[]>> pool = predictorPool;
+        return pool != null ? pool.size() : 0;
+    }
+
+    public String getModelVersion() {
+        return MODEL_VERSION;
     }
 
     public int getFeatureDimension() {
@@ -153,6 +278,7 @@ public class FeatureExtractionService {
 
     @PreDestroy
     public void cleanup() {
+        allPredictors.forEach(Predictor::close);
         if (model != null) {
             model.close();
         }
@@ -0,0 +1,337 @@
+package com.project.khoya.service.Image;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Hierarchical Navigable Small World (HNSW) graph for approximate nearest-neighbour search
+ * over L2-normalized embeddings. Similarity is the dot product, which equals cosine
+ * similarity for unit-length vectors.
+ * <p>
+ * Nodes only hold a slot in the {@link EmbeddingStore}; vectors stay off-heap.
+ * Removal is a tombstone: the node keeps routing searches but is never returned. Searches can score nodes
+ * through a {@link QueryScorer} other than the exact dot product, e.g. quantized codes.
+ * The index is not thread-safe; {@link SimilarityIndexService} guards all access.
+ */
+public class HnswIndex {
+
+    private final EmbeddingStore store;
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeByAlertId = new HashMap<>();
+
+    /**
+     * Similarity of the current query to the vector in a store slot; higher is closer.
+     */
+    @FunctionalInterface
+    interface QueryScorer {
+        float score(int slot);
+    }
+
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount = 0;
+
+    // Scratch copy of the vector being inserted; inserts are serialized by the caller
+    private final float[] insertBuffer;
+
+    public HnswIndex(EmbeddingStore store, int m, int efConstruction) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW parameter M must be at least 2");
+        }
+        this.store = store;
+        this.dimension = store.dimension();
+        this.insertBuffer = new float[dimension];
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * Insert or replace the node of an alert whose vector lives in the given store slot.
+     */
+    public void add(long alertId, int slot) {
+        remove(alertId);
+
+        float[] vector = insertBuffer;
+        store.read(slot, vector);
+
+        int level = randomLevel();
+        int nodeId = nodes.size();
+        nodes.add(new Node(alertId, slot, level, m, maxM0));
+        nodeByAlertId.put(alertId, nodeId);
+
+        if (entryPoint < 0) {
+            entryPoint = nodeId;
+            maxLevel = level;
+            return;
+        }
+
+        QueryScorer scorer = target -> store.dot(vector, target);
+        int current = greedyClosest(scorer, entryPoint, maxLevel, level);
+
+        for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+            PriorityQueue<Candidate> found = searchLayer(scorer, current, efConstruction, layer);
+            List<Candidate> selected = selectNeighbors(found, m);
+
+            for (Candidate candidate : selected) {
+                connect(nodeId, candidate.node(), layer);
+                connect(candidate.node(), nodeId, layer);
+            }
+
+            current = bestOf(found);
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = nodeId;
+        }
+    }
+
+    /**
+     * Tombstone the node of an alert. Returns false when the alert is not indexed.
+     */
+    public boolean remove(long alertId) {
+        Integer nodeId = nodeByAlertId.remove(alertId);
+        if (nodeId == null) {
+            return false;
+        }
+        nodes.get(nodeId).deleted = true;
+        deletedCount++;
+        return true;
+    }
+
+    public boolean contains(long alertId) {
+        return nodeByAlertId.containsKey(alertId);
+    }
+
+    /**
+     * Approximate top-K search. A larger {@code ef} explores more of the graph: higher recall, higher latency.
+     */
+    public List<SimilarityHit> search(float[] query, int k, int ef) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException(String.format("Query dimension must be %d (got %d)", dimension, query.length));
+        }
+        return search(slot -> store.dot(query, slot), k, ef);
+    }
+
+    /**
+     * Top-K search ranked by the given scorer; hit similarities are the scorer's values.
+     */
+    List<SimilarityHit> search(QueryScorer scorer, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+
+        int current = greedyClosest(scorer, entryPoint, maxLevel, 0);
+        PriorityQueue<Candidate> found = searchLayer(scorer, current, Math.max(ef, k), 0);
+
+        List<Candidate> ordered = new ArrayList<>(found);
+        ordered.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+
+        List<SimilarityHit> hits = new ArrayList<>(k);
+        for (Candidate candidate : ordered) {
+            Node node = nodes.get(candidate.node());
+            if (!node.deleted) {
+                hits.add(new SimilarityHit(node.alertId, candidate.similarity()));
+                if (hits.size() == k) {
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    public int size() {
+        return nodes.size() - deletedCount;
+    }
+
+    public double deletedRatio() {
+        return nodes.isEmpty() ? 0.0 : (double) deletedCount / nodes.size();
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - random.nextDouble();
+        return (int) Math.floor(-Math.log(uniform) * levelMultiplier);
+    }
+
+    private int greedyClosest(QueryScorer scorer, int start, int fromLevel, int toLevelExclusive) {
+        int current = start;
+        float currentSimilarity = similarity(scorer, current);
+
+        for (int layer = fromLevel; layer > toLevelExclusive; layer--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                Node node = nodes.get(current);
+                if (layer > node.level) {
+                    break;
+                }
+                int[] neighbors = node.neighbors[layer];
+                for (int i = 0; i < node.counts[layer]; i++) {
+                    float s = similarity(scorer, neighbors[i]);
+                    if (s > currentSimilarity) {
+                        currentSimilarity = s;
+                        current = neighbors[i];
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search restricted to one layer. Returns a worst-first heap of at most {@code ef} results.
+     */
+    private PriorityQueue<Candidate> searchLayer(QueryScorer scorer, int start, int ef, int layer) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+
+        Candidate first = new Candidate(start, similarity(scorer, start));
+        visited.set(start);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.similarity() < results.peek().similarity()) {
+                break;
+            }
+
+            Node node = nodes.get(closest.node());
+            int[] neighbors = node.neighbors[layer];
+            for (int i = 0; i < node.counts[layer]; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+
+                float s = similarity(scorer, neighbor);
+                if (results.size() < ef || s > results.peek().similarity()) {
+                    Candidate candidate = new Candidate(neighbor, s);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic from the HNSW paper: prefer candidates that are closer to the
+     * new node than to any already-selected neighbour, which keeps links spread across clusters.
+     */
+    private List<Candidate> selectNeighbors(PriorityQueue<Candidate> found, int limit) {
+        List<Candidate> ordered = new ArrayList<>(found);
+        ordered.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : ordered) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (similarity(candidate.node(), chosen.node()) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+
+        for (int i = 0; i < pruned.size() && selected.size() < limit; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private void connect(int from, int to, int layer) {
+        Node node = nodes.get(from);
+        int capacity = node.neighbors[layer].length;
+
+        if (node.counts[layer] < capacity) {
+            node.neighbors[layer][node.counts[layer]++] = to;
+            return;
+        }
+
+        // Over capacity: keep the closest links to "from"
+        PriorityQueue<Candidate> pool = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+        for (int i = 0; i < capacity; i++) {
+            int neighbor = node.neighbors[layer][i];
+            pool.add(new Candidate(neighbor, similarity(from, neighbor)));
+        }
+        pool.add(new Candidate(to, similarity(from, to)));
+
+        List<Candidate> kept = selectNeighbors(pool, capacity);
+        for (int i = 0; i < kept.size(); i++) {
+            node.neighbors[layer][i] = kept.get(i).node();
+        }
+        node.counts[layer] = kept.size();
+    }
+
+    private int bestOf(PriorityQueue<Candidate> found) {
+        Candidate best = null;
+        for (Candidate candidate : found) {
+            if (best == null || candidate.similarity() > best.similarity()) {
+                best = candidate;
+            }
+        }
+        return best.node();
+    }
+
+    private float similarity(QueryScorer scorer, int node) {
+        return scorer.score(nodes.get(node).slot);
+    }
+
+    private float similarity(int a, int b) {
+        return store.dot(nodes.get(a).slot, nodes.get(b).slot);
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+
+    private static final class Node {
+        private final long alertId;
+        private final int slot;
+        private final int level;
+        private final int[][] neighbors;
+        private final int[] counts;
+        private boolean deleted;
+
+        private Node(long alertId, int slot, int level, int m, int maxM0) {
+            this.alertId = alertId;
+            this.slot = slot;
+            this.level = level;
+            this.neighbors = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int layer = 0; layer <= level; layer++) {
+                neighbors[layer] = new int[layer == 0 ? maxM0 : m];
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.khoya.service.Image;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Decodes uploads straight to roughly model input size. The JPEG/PNG reader skips rows and columns
+ * (source subsampling), so a 12 MP photo is never materialized at full resolution; the remainder is a
+ * single bilinear downscale to {@code targetSize} on the short side, which FeatureTranslator then
+ * resizes and crops as before.
+ */
+@Component
+@Slf4j
+public class ImagePreprocessor {
+
+    @Value("${app.feature-extraction.decode-size:256}")
+    private int targetSize;
+
+    // Per-thread downscale target for transient reads, reused while the output size stays the same
+    private final ThreadLocal<BufferedImage> scratch = new ThreadLocal<>();
+
+    public Image decode(byte[] bytes) throws IOException {
+        return decode(new ByteArrayInputStream(bytes));
+    }
+
+    public Image decode(InputStream input) throws IOException {
+        byte[] bytes = input.readAllBytes();
+
+        BufferedImage decoded = decodeDownscaled(bytes);
+        if (decoded == null) {
+            // No ImageIO reader for this format; let DJL decode it at full size
+            log.debug("No ImageIO reader found, falling back to full decode");
+            return ImageFactory.getInstance().fromInputStream(new ByteArrayInputStream(bytes));
+        }
+        return ImageFactory.getInstance().fromImage(decoded);
+    }
+
+    /**
+     * Decoded and downscaled RGB image, or null when ImageIO cannot read the format.
+     */
+    public BufferedImage decodeDownscaled(byte[] bytes) throws IOException {
+        BufferedImage decoded = decodeSubsampled(bytes);
+        return decoded != null ? downscale(decoded, null) : null;
+    }
+
+    /**
+     * As {@link #decodeDownscaled(byte[])}, but the result may be a per-thread buffer that the next call on
+     * the same thread overwrites. Only for callers that are done with the image before decoding another.
+     */
+    public BufferedImage decodeDownscaledTransient(byte[] bytes) throws IOException {
+        BufferedImage decoded = decodeSubsampled(bytes);
+        return decoded != null ? downscale(decoded, scratch) : null;
+    }
+
+    private BufferedImage decodeSubsampled(byte[] bytes) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int shortSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, shortSide / targetSize);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage downscale(BufferedImage source, ThreadLocal<BufferedImage> reuse) {
+        int shortSide = Math.min(source.getWidth(), source.getHeight());
+        double scale = shortSide > targetSize ? (double) targetSize / shortSide : 1.0;
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        if (scale == 1.0 && source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+
+        BufferedImage target = reuse != null ? reuse.get() : null;
+        if (target == null || target.getWidth() != width || target.getHeight() != height) {
+            target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            if (reuse != null) {
+                reuse.set(target);
+            }
+        }
+        Graphics2D graphics = target.createGraphics();
+        try {
+            // Replace rather than blend, so a reused canvas keeps nothing of the previous image
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
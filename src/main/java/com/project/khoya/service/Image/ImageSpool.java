@@ -0,0 +1,249 @@
+package com.project.khoya.service.Image;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bounded local staging area for uploaded images awaiting feature extraction, keyed by alert id.
+ * Stores a model-sized PNG thumbnail so the extraction worker does not download the image back from
+ * Cloudinary. Entries are best-effort: a missing file (other node, eviction, restart) means the worker
+ * falls back to the image URL.
+ * <p>
+ * Thumbnails are written by one background thread, off the request path. Spooled files are tracked in an
+ * in-memory ledger (oldest first, with their sizes), so eviction and expiry never list the directory; the
+ * directory is only scanned once at startup to pick up files left by the previous run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageSpool {
+
+    private static final String SUFFIX = ".img";
+
+    private final ImagePreprocessor imagePreprocessor;
+
+    @Value("${app.feature-extraction.spool.dir:data/spool}")
+    private String spoolDir;
+
+    @Value("${app.feature-extraction.spool.max-files:500}")
+    private int maxFiles;
+
+    @Value("${app.feature-extraction.spool.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${app.feature-extraction.spool.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    // Uploads waiting for the spool thread; beyond this the image is not spooled
+    @Value("${app.feature-extraction.spool.queue-size:100}")
+    private int queueSize;
+
+    private Path directory;
+    private ThreadPoolExecutor writer;
+
+    private record Entry(long sizeBytes, long writtenAt) {
+    }
+
+    // Alert id -> spooled file, in write order; guarded by itself
+    private final LinkedHashMap<Long, Entry> ledger = new LinkedHashMap<>();
+    private long spooledBytes = 0;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(spoolDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        loadLedger();
+
+        writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "image-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stage the image for an alert on the spool thread, then run {@code then} (e.g. publish the extraction
+     * message, so the worker finds the file). If the spool is saturated the image is skipped and
+     * {@code then} runs right away. Failures are logged and only cost a download later.
+     */
+    public void spoolAsync(Long alertId, byte[] original, Runnable then) {
+        try {
+            writer.execute(() -> {
+                try {
+                    spool(alertId, original);
+                } finally {
+                    then.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Spool queue full, not staging image for alert {}", alertId);
+            then.run();
+        }
+    }
+
+    /**
+     * Stage the image for an alert on the calling thread.
+     */
+    public void spool(Long alertId, byte[] original) {
+        try {
+            byte[] payload = original;
+            // Written out right away, so the spool thread can keep reusing one canvas
+            BufferedImage thumbnail = imagePreprocessor.decodeDownscaledTransient(original);
+            if (thumbnail != null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(thumbnail, "png", out);
+                payload = out.toByteArray();
+            }
+
+            Path temp = Files.createTempFile(directory, "spool-", ".tmp");
+            Files.write(temp, payload);
+            Files.move(temp, pathFor(alertId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Spooled image for alert {} ({} bytes)", alertId, payload.length);
+
+            record(alertId, new Entry(payload.length, System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("Failed to spool image for alert {}: {}", alertId, e.getMessage());
+        }
+    }
+
+    public Optional<byte[]> read(Long alertId) {
+        try {
+            return Optional.of(Files.readAllBytes(pathFor(alertId)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Failed to read spooled image for alert {}: {}", alertId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void delete(Long alertId) {
+        synchronized (ledger) {
+            forget(alertId);
+        }
+        deleteFile(alertId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.feature-extraction.spool.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        long cutoff = System.currentTimeMillis() - Duration.ofMinutes(maxAgeMinutes).toMillis();
+        List<Long> expired = new ArrayList<>();
+        synchronized (ledger) {
+            Iterator<Map.Entry<Long, Entry>> oldestFirst = ledger.entrySet().iterator();
+            while (oldestFirst.hasNext()) {
+                Map.Entry<Long, Entry> entry = oldestFirst.next();
+                if (entry.getValue().writtenAt() >= cutoff) {
+                    break;
+                }
+                spooledBytes -= entry.getValue().sizeBytes();
+                oldestFirst.remove();
+                expired.add(entry.getKey());
+            }
+        }
+        expired.forEach(this::deleteFile);
+        if (!expired.isEmpty()) {
+            log.info("Removed {} expired spooled images", expired.size());
+        }
+    }
+
+    private void record(Long alertId, Entry entry) {
+        List<Long> evicted = new ArrayList<>();
+        synchronized (ledger) {
+            // Re-spooling an alert moves it to the young end
+            forget(alertId);
+            ledger.put(alertId, entry);
+            spooledBytes += entry.sizeBytes();
+
+            Iterator<Map.Entry<Long, Entry>> oldestFirst = ledger.entrySet().iterator();
+            while ((ledger.size() > maxFiles || spooledBytes > maxBytes) && oldestFirst.hasNext()) {
+                Map.Entry<Long, Entry> oldest = oldestFirst.next();
+                if (oldest.getKey().equals(alertId)) {
+                    break;
+                }
+                spooledBytes -= oldest.getValue().sizeBytes();
+                oldestFirst.remove();
+                evicted.add(oldest.getKey());
+            }
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    // Caller holds the ledger lock
+    private void forget(Long alertId) {
+        Entry previous = ledger.remove(alertId);
+        if (previous != null) {
+            spooledBytes -= previous.sizeBytes();
+        }
+    }
+
+    private void loadLedger() {
+        record SpooledFile(Long alertId, Entry entry) {
+        }
+        List<SpooledFile> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    return;
+                }
+                try {
+                    Long alertId = Long.valueOf(name.substring(0, name.length() - SUFFIX.length()));
+                    found.add(new SpooledFile(alertId, new Entry(Files.size(file), Files.getLastModifiedTime(file).toMillis())));
+                } catch (NumberFormatException | IOException e) {
+                    log.debug("Ignoring spool file {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to list spool directory {}: {}", directory, e.getMessage());
+        }
+        found.sort(Comparator.comparingLong(file -> file.entry().writtenAt()));
+        found.forEach(file -> record(file.alertId(), file.entry()));
+        log.info("Image spool at {} holds {} images ({} bytes)", directory, ledger.size(), spooledBytes);
+    }
+
+    private void deleteFile(Long alertId) {
+        try {
+            Files.deleteIfExists(pathFor(alertId));
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled image for alert {}: {}", alertId, e.getMessage());
+        }
+    }
+
+    private Path pathFor(Long alertId) {
+        return directory.resolve(alertId + SUFFIX);
+    }
+}
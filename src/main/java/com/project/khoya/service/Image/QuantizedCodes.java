@@ -0,0 +1,106 @@
+package com.project.khoya.service.Image;
+
+import java.util.Arrays;
+
+/**
+ * Resident quantized codes indexed by {@link EmbeddingStore} slot.
+ * Not thread-safe; {@link SimilarityIndexService} guards all access. Query codes go into per-thread buffers,
+ * so a scorer is only valid until the next {@link #scorer} call on the same thread.
+ */
+class QuantizedCodes {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final EmbeddingQuantizer.Mode mode;
+    private final int dimension;
+    private final int words;
+
+    private byte[] int8Codes = new byte[0];
+    private float[] int8Scales = new float[0];
+    private long[] binaryCodes = new long[0];
+    private int capacity = 0;
+
+    private final ThreadLocal<byte[]> queryInt8 = ThreadLocal.withInitial(this::newInt8Buffer);
+    private final ThreadLocal<long[]> queryBinary = ThreadLocal.withInitial(this::newBinaryBuffer);
+
+    QuantizedCodes(EmbeddingQuantizer.Mode mode, int dimension) {
+        this.mode = mode;
+        this.dimension = dimension;
+        this.words = EmbeddingQuantizer.wordsFor(dimension);
+        ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    void put(int slot, float[] vector) {
+        ensureCapacity(slot + 1);
+        if (mode == EmbeddingQuantizer.Mode.INT8) {
+            int8Scales[slot] = EmbeddingQuantizer.quantizeInt8(vector, int8Codes, slot * dimension);
+        } else {
+            EmbeddingQuantizer.quantizeBinary(vector, binaryCodes, slot * words);
+        }
+    }
+
+    /**
+     * Approximate similarity of a query against each slot. Only the ordering is meaningful;
+     * candidates are re-ranked against the full vectors.
+     */
+    void scoreAll(float[] query, int[] slots, int count, float[] scores) {
+        HnswIndex.QueryScorer scorer = scorer(query);
+        for (int i = 0; i < count; i++) {
+            scores[i] = scorer.score(slots[i]);
+        }
+    }
+
+    /**
+     * Quantize the query once and score slots against it by their codes, e.g. while walking the graph.
+     */
+    HnswIndex.QueryScorer scorer(float[] query) {
+        if (mode == EmbeddingQuantizer.Mode.INT8) {
+            byte[] queryCodes = queryInt8.get();
+            float queryScale = EmbeddingQuantizer.quantizeInt8(query, queryCodes, 0);
+            return slot -> int8Dot(queryCodes, slot) * queryScale * int8Scales[slot];
+        }
+        long[] queryBits = queryBinary.get();
+        EmbeddingQuantizer.quantizeBinary(query, queryBits, 0);
+        return slot -> -hamming(queryBits, slot);
+    }
+
+    private byte[] newInt8Buffer() {
+        return new byte[dimension];
+    }
+
+    private long[] newBinaryBuffer() {
+        return new long[words];
+    }
+
+    private int int8Dot(byte[] query, int slot) {
+        int base = slot * dimension;
+        int sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * int8Codes[base + i];
+        }
+        return sum;
+    }
+
+    private int hamming(long[] query, int slot) {
+        int base = slot * words;
+        int distance = 0;
+        for (int w = 0; w < words; w++) {
+            distance += Long.bitCount(query[w] ^ binaryCodes[base + w]);
+        }
+        return distance;
+    }
+
+    private void ensureCapacity(int slots) {
+        if (slots <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(slots, capacity * 2);
+        if (mode == EmbeddingQuantizer.Mode.INT8) {
+            int8Codes = Arrays.copyOf(int8Codes, newCapacity * dimension);
+            int8Scales = Arrays.copyOf(int8Scales, newCapacity);
+        } else {
+            binaryCodes = Arrays.copyOf(binaryCodes, newCapacity * words);
+        }
+        capacity = newCapacity;
+    }
+}
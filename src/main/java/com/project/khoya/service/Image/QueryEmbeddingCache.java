@@ -0,0 +1,126 @@
+package com.project.khoya.service.Image;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of query embeddings: SHA-256 of the uploaded bytes to the L2-normalized vector.
+ * A small in-process LRU sits in front of Redis, so a reshared poster skips decode and inference entirely.
+ * Keys include the model version, so vectors from another model are never served. Local hits are copies,
+ * so callers may modify the returned array. Redis failures only cost a cache miss.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryEmbeddingCache {
+
+    // Bump when preprocessing or the encoding changes; the model version is part of every key
+    private static final String KEY_PREFIX = "query-embedding:v1:";
+
+    @FunctionalInterface
+    public interface EmbeddingLoader {
+        float[] load() throws Exception;
+    }
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final FeatureExtractionService featureExtractionService;
+
+    @Value("${app.similarity.query-cache.local-size:256}")
+    private int localSize;
+
+    @Value("${app.similarity.query-cache.ttl-hours:24}")
+    private long ttlHours;
+
+    private Map<String, float[]> local;
+
+    @PostConstruct
+    public void init() {
+        local = new LinkedHashMap<>(localSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > localSize;
+            }
+        };
+    }
+
+    public float[] getOrCompute(byte[] content, EmbeddingLoader loader) throws Exception {
+        String hash = featureExtractionService.getModelVersion() + ":" + sha256(content);
+
+        float[] cached = getLocal(hash);
+        if (cached != null) {
+            log.debug("Query embedding cache hit (local) for {}", hash);
+            return cached;
+        }
+
+        cached = getRemote(hash);
+        if (cached != null) {
+            log.debug("Query embedding cache hit (redis) for {}", hash);
+            putLocal(hash, cached);
+            return cached;
+        }
+
+        float[] embedding = loader.load();
+        putLocal(hash, embedding);
+        putRemote(hash, embedding);
+        return embedding;
+    }
+
+    private float[] getLocal(String hash) {
+        float[] embedding;
+        synchronized (local) {
+            embedding = local.get(hash);
+        }
+        return embedding == null ? null : embedding.clone();
+    }
+
+    private void putLocal(String hash, float[] embedding) {
+        float[] copy = embedding.clone();
+        synchronized (local) {
+            local.put(hash, copy);
+        }
+    }
+
+    private float[] getRemote(String hash) {
+        try {
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + hash);
+            if (value instanceof String encoded) {
+                float[] embedding = featureExtractionService.bytesToFloatArray(Base64.getDecoder().decode(encoded));
+                if (embedding.length == featureExtractionService.getFeatureDimension()) {
+                    return embedding;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Query embedding cache read failed: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private void putRemote(String hash, float[] embedding) {
+        try {
+            String encoded = Base64.getEncoder().encodeToString(featureExtractionService.floatArrayToBytes(embedding));
+            redisTemplate.opsForValue().set(KEY_PREFIX + hash, encoded, Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.warn("Query embedding cache write failed: {}", e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.khoya.service.Image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Portable kernel. Four independent accumulators break the add dependency chain so the JIT can pipeline the loop.
+ */
+public class ScalarSimilarityKernel implements SimilarityKernel {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int length = a.length;
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float dot(float[] query, ByteBuffer data, int byteOffset) {
+        int length = query.length;
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            int offset = byteOffset + i * Float.BYTES;
+            s0 += query[i] * data.getFloat(offset);
+            s1 += query[i + 1] * data.getFloat(offset + 4);
+            s2 += query[i + 2] * data.getFloat(offset + 8);
+            s3 += query[i + 3] * data.getFloat(offset + 12);
+        }
+        for (; i < length; i++) {
+            s0 += query[i] * data.getFloat(byteOffset + i * Float.BYTES);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float dot(ByteBuffer data, int byteOffsetA, int byteOffsetB, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            int a = byteOffsetA + i * Float.BYTES;
+            int b = byteOffsetB + i * Float.BYTES;
+            s0 += data.getFloat(a) * data.getFloat(b);
+            s1 += data.getFloat(a + 4) * data.getFloat(b + 4);
+            s2 += data.getFloat(a + 8) * data.getFloat(b + 8);
+            s3 += data.getFloat(a + 12) * data.getFloat(b + 12);
+        }
+        for (; i < length; i++) {
+            s0 += data.getFloat(byteOffsetA + i * Float.BYTES) * data.getFloat(byteOffsetB + i * Float.BYTES);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.khoya.service.Image;
+
+/**
+ * One result of a similarity search: the alert and its cosine similarity to the query.
+ */
+public record SimilarityHit(long alertId, double similarity) {
+}
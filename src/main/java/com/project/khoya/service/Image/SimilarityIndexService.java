@@ -0,0 +1,525 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.repository.AlertEmbeddingRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Resident approximate-nearest-neighbour index over alert embeddings, with per-alert filter attributes.
+ * Vectors live in the memory-mapped {@link EmbeddingStore}, which survives restarts; on startup the
+ * store is reconciled with the database and the HNSW graph is rebuilt over it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarityIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int BUILD_CHUNK_SIZE = 256;
+
+    private final AlertEmbeddingRepository embeddingRepository;
+    private final FeatureExtractionService featureExtractionService;
+    private final EmbeddingStore store;
+    private final EmbeddingQuantizer quantizer;
+
+    @Value("${app.similarity.index.m:16}")
+    private int m;
+
+    @Value("${app.similarity.index.ef-construction:100}")
+    private int efConstruction;
+
+    // Recall/latency knob: candidates explored per query
+    @Value("${app.similarity.index.ef-search:64}")
+    private int efSearch;
+
+    @Value("${app.similarity.index.max-deleted-ratio:0.2}")
+    private double maxDeletedRatio;
+
+    // Quantized first pass keeps topK * factor candidates for exact re-ranking
+    @Value("${app.similarity.quantization.rerank-factor:10}")
+    private int rerankFactor;
+
+    // Filters matching at most this fraction of indexed alerts are applied before scoring (exact scan of
+    // the matches); broader filters post-filter an oversampled graph search. The index holds alerts of every
+    // status, so the default ACTIVE-only filter already counts against this; at 0.2 a mostly resolved index
+    // sent every plain query down the scan path
+    @Value("${app.similarity.filter.prefilter-max-selectivity:0.05}")
+    private double prefilterMaxSelectivity;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private HnswIndex index;
+    private List<Consumer<HnswIndex>> pendingDuringRebuild;
+    // Released store slots at the last graph snapshot; the graph built from it references none of them
+    private int releasedAtSnapshot;
+    private boolean compactionRequested = false;
+    private boolean ready = false;
+    private QuantizedCodes codes;
+    private final AlertAttributeIndex attributes = new AlertAttributeIndex();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Per-thread search buffers, grown on demand and reused, so a query allocates nothing proportional to the
+     * number of indexed alerts. A search never re-enters itself on the same thread.
+     */
+    private static final class Scratch {
+        int[] matching = new int[0];
+        int[] candidates = new int[0];
+        int[] offsets = new int[0];
+        float[] approximate = new float[0];
+        float[] exact = new float[0];
+
+        void ensure(int slots) {
+            if (matching.length < slots) {
+                int size = Math.max(slots, matching.length * 2);
+                // Keeps the matches of the current search, which may still be scanned after the graph walk
+                matching = Arrays.copyOf(matching, size);
+                candidates = new int[size];
+                offsets = new int[size];
+                approximate = new float[size];
+                exact = new float[size];
+            }
+        }
+    }
+
+    @PostConstruct
+    public void initQuantizedCodes() {
+        if (!quantizer.isEnabled()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            QuantizedCodes loaded = new QuantizedCodes(quantizer.getMode(), store.dimension());
+            float[] buffer = new float[store.dimension()];
+            store.forEachLiveSlot(slot -> {
+                store.read(slot, buffer);
+                loaded.put(slot, buffer);
+            });
+            codes = loaded;
+            log.info("Quantized {} codes for {} stored embeddings", quantizer.getMode(), store.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        HnswIndex rebuilt;
+        try {
+            int refreshed = reconcileWithDatabase();
+            log.info("Embedding store reconciled, {} vectors refreshed from the database", refreshed);
+            rebuilt = buildGraph();
+        } catch (Exception e) {
+            log.error("Failed to rebuild similarity index, searches will use exact scan", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            swapIn(rebuilt);
+            ready = true;
+            store.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Similarity index rebuilt with {} alerts in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rebuild the graph without its tombstones once removals or re-uploads have left too many. Runs on the
+     * scheduler thread with the same chunked build and journal replay as startup, so searches and writes
+     * only wait for the final swap.
+     */
+    @Scheduled(fixedDelayString = "${app.similarity.index.compaction-check-ms:30000}")
+    public void compactIfRequested() {
+        lock.writeLock().lock();
+        try {
+            if (!compactionRequested || !ready || pendingDuringRebuild != null) {
+                return;
+            }
+            compactionRequested = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        HnswIndex compacted;
+        try {
+            compacted = buildGraph();
+        } catch (Exception e) {
+            log.error("Failed to compact similarity index, keeping the current graph", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+                compactionRequested = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            swapIn(compacted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Similarity index compacted to {} alerts in {} ms", compacted.size(), System.currentTimeMillis() - start);
+    }
+
+    public void upsert(Long alertId, float[] embedding, LocalDateTime version, AlertAttributes alertAttributes) {
+        if (embedding.length != store.dimension()) {
+            log.warn("Not indexing alert {} - wrong dimension: {}", alertId, embedding.length);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int slot = store.put(alertId, embedding, toVersion(version));
+            attributes.put(slot, alertAttributes);
+            if (codes != null) {
+                codes.put(slot, embedding);
+            }
+            apply(idx -> idx.add(alertId, slot));
+            // Re-indexing an alert tombstones its previous node
+            requestCompactionIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refresh the filterable metadata of an indexed alert (status, location) without touching its vector.
+     */
+    public void updateAttributes(Long alertId, AlertAttributes alertAttributes) {
+        lock.writeLock().lock();
+        try {
+            int slot = store.slotOf(alertId);
+            if (slot >= 0) {
+                attributes.put(slot, alertAttributes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long alertId) {
+        lock.writeLock().lock();
+        try {
+            int slot = store.slotOf(alertId);
+            if (store.remove(alertId)) {
+                attributes.clear(slot);
+                apply(idx -> idx.remove(alertId));
+                requestCompactionIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-K most similar alerts matching the query filters, best first.
+     * <ol>
+     *     <li>Filter: the attribute index selects matching slots and measures selectivity.</li>
+     *     <li>Selective filters (or no graph yet) score only the matching slots: a scan over quantized codes
+     *     re-ranked exactly, or an exact scan.</li>
+     *     <li>Broad filters search the HNSW graph with k scaled by 1 / selectivity and drop non-matching hits,
+     *     falling back to the pre-filtered scan if too few survive. With quantization on, the graph walk scores
+     *     nodes by their codes and keeps {@code rerankFactor} times as many candidates, which are re-ranked
+     *     against the full vectors; the mapped float pages are then only touched for those candidates.</li>
+     * </ol>
+     */
+    public List<SimilarityHit> search(float[] queryEmbedding, SimilarityQuery query) {
+        int topK = query.getTopK();
+        lock.readLock().lock();
+        try {
+            int liveCount = store.liveCount();
+            Scratch buffers = scratch.get();
+            buffers.ensure(liveCount);
+            AlertAttributeIndex.Filter filter = attributes.compile(query);
+            int matching = attributes.filter(store.liveSlotArray(), liveCount, filter, buffers.matching);
+            double selectivity = liveCount == 0 ? 0.0 : (double) matching / liveCount;
+
+            if (ready && selectivity > prefilterMaxSelectivity) {
+                int oversampled = (int) Math.min(matching, Math.ceil(topK / selectivity * 1.5));
+                List<SimilarityHit> hits = codes != null
+                        ? quantizedGraphSearch(queryEmbedding, filter, oversampled, topK, buffers)
+                        : index.search(queryEmbedding, oversampled, Math.max(efSearch, oversampled)).stream()
+                        .filter(hit -> filter.matches(store.slotOf(hit.alertId())))
+                        .limit(topK)
+                        .toList();
+                if (hits.size() >= Math.min(topK, matching)) {
+                    return hits;
+                }
+                log.debug("Post-filtered graph search returned {} of {} hits, scanning {} matches", hits.size(), topK, matching);
+            } else if (!ready) {
+                log.warn("Similarity index not ready yet, scanning {} matches", matching);
+            }
+
+            return codes != null ? quantizedSearch(queryEmbedding, matching, topK, buffers) : exactSearch(queryEmbedding, matching, topK, buffers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long alertId) {
+        lock.readLock().lock();
+        try {
+            return store.contains(alertId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void apply(Consumer<HnswIndex> op) {
+        if (index != null) {
+            op.accept(index);
+        }
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(op);
+        }
+    }
+
+    // Caller holds the write lock
+    private void requestCompactionIfNeeded() {
+        if (index != null && index.deletedRatio() > maxDeletedRatio) {
+            compactionRequested = true;
+        }
+    }
+
+    // Caller holds the write lock: replay the journal onto a freshly built graph and make it current
+    private void swapIn(HnswIndex rebuilt) {
+        pendingDuringRebuild.forEach(op -> op.accept(rebuilt));
+        pendingDuringRebuild = null;
+        index = rebuilt;
+        store.recycleReleasedSlots(releasedAtSnapshot);
+    }
+
+    private HnswIndex newIndex() {
+        return new HnswIndex(store, m, efConstruction);
+    }
+
+    /**
+     * Bring the persisted store in line with the database: fetch vectors that are missing or older
+     * than the alert row, refresh filter attributes, and drop alerts that no longer exist. Returns the number refreshed.
+     */
+    private int reconcileWithDatabase() {
+        Set<Long> expected = new HashSet<>();
+        List<Long> stale = new ArrayList<>();
+        Map<Long, AlertAttributes> staleAttributes = new HashMap<>();
+        long afterId = 0L;
+
+        while (true) {
+            List<Object[]> rows = embeddingRepository.findIndexableAfterId(featureExtractionService.getModelVersion(), afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    Long alertId = (Long) row[0];
+                    AlertAttributes alertAttributes = new AlertAttributes((AlertStatus) row[2], (LocalDateTime) row[3], (String) row[4], (Double) row[5], (Double) row[6]);
+                    afterId = alertId;
+                    expected.add(alertId);
+                    if (store.versionOf(alertId) < toVersion((LocalDateTime) row[1])) {
+                        stale.add(alertId);
+                        staleAttributes.put(alertId, alertAttributes);
+                    } else {
+                        attributes.put(store.slotOf(alertId), alertAttributes);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        int expectedBytes = store.dimension() * Float.BYTES;
+        for (int from = 0; from < stale.size(); from += REBUILD_BATCH_SIZE) {
+            List<Long> ids = stale.subList(from, Math.min(from + REBUILD_BATCH_SIZE, stale.size()));
+            for (Object[] row : embeddingRepository.findVectorsByAlertIds(ids)) {
+                Long alertId = (Long) row[0];
+                byte[] bytes = (byte[]) row[1];
+                if (bytes == null || bytes.length != expectedBytes) {
+                    log.debug("Skipping alert {} - wrong embedding size", alertId);
+                    expected.remove(alertId);
+                    continue;
+                }
+                upsert(alertId, featureExtractionService.bytesToFloatArray(bytes), (LocalDateTime) row[2], staleAttributes.get(alertId));
+            }
+        }
+
+        List<Long> persisted;
+        lock.readLock().lock();
+        try {
+            persisted = store.alertIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+        persisted.stream().filter(alertId -> !expected.contains(alertId)).forEach(this::remove);
+
+        return stale.size();
+    }
+
+    /**
+     * Build a fresh graph over the store in chunks so searches and writes can interleave.
+     * Writes made after the snapshot are journaled and replayed onto the new graph.
+     */
+    private HnswIndex buildGraph() {
+        List<long[]> snapshot = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+            releasedAtSnapshot = store.releasedSlotCount();
+            store.forEachLiveSlot(slot -> snapshot.add(new long[]{store.alertIdAt(slot), slot}));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        HnswIndex rebuilt = newIndex();
+        for (int from = 0; from < snapshot.size(); from += BUILD_CHUNK_SIZE) {
+            lock.readLock().lock();
+            try {
+                for (long[] entry : snapshot.subList(from, Math.min(from + BUILD_CHUNK_SIZE, snapshot.size()))) {
+                    rebuilt.add(entry[0], (int) entry[1]);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return rebuilt;
+    }
+
+    // Caller holds the read lock; scores the first count slots of buffers.matching
+    private List<SimilarityHit> exactSearch(float[] queryEmbedding, int count, int topK, Scratch buffers) {
+        int[] slots = buffers.matching;
+        float[] scores = buffers.exact;
+        store.dotAll(queryEmbedding, slots, count, scores, buffers.offsets);
+
+        PriorityQueue<SimilarityHit> best = new PriorityQueue<>(Comparator.comparingDouble(SimilarityHit::similarity));
+        for (int i = 0; i < count && topK > 0; i++) {
+            if (best.size() < topK) {
+                best.add(new SimilarityHit(store.alertIdAt(slots[i]), scores[i]));
+            } else if (scores[i] > best.peek().similarity()) {
+                best.poll();
+                best.add(new SimilarityHit(store.alertIdAt(slots[i]), scores[i]));
+            }
+        }
+
+        List<SimilarityHit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(SimilarityHit::similarity).reversed());
+        return hits;
+    }
+
+    // Caller holds the read lock: graph walk over quantized codes, then exact re-rank of the matching candidates
+    private List<SimilarityHit> quantizedGraphSearch(float[] queryEmbedding, AlertAttributeIndex.Filter filter, int oversampled, int topK, Scratch buffers) {
+        int candidateCount = Math.max(oversampled, oversampled * rerankFactor);
+        List<SimilarityHit> approximate = index.search(codes.scorer(queryEmbedding), candidateCount, Math.max(efSearch, candidateCount));
+
+        // The graph can still hold a few more nodes than there are live slots (tombstones)
+        buffers.ensure(approximate.size());
+        int[] candidateSlots = buffers.candidates;
+        int count = 0;
+        for (SimilarityHit hit : approximate) {
+            int slot = store.slotOf(hit.alertId());
+            if (filter.matches(slot)) {
+                candidateSlots[count++] = slot;
+            }
+        }
+        float[] exact = buffers.exact;
+        store.dotAll(queryEmbedding, candidateSlots, count, exact, buffers.offsets);
+
+        List<SimilarityHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(new SimilarityHit(store.alertIdAt(candidateSlots[i]), exact[i]));
+        }
+        hits.sort(Comparator.comparingDouble(SimilarityHit::similarity).reversed());
+        return hits.size() > topK ? new ArrayList<>(hits.subList(0, topK)) : hits;
+    }
+
+    // Caller holds the read lock; scans the first count slots of buffers.matching
+    private List<SimilarityHit> quantizedSearch(float[] queryEmbedding, int count, int topK, Scratch buffers) {
+        int[] slots = buffers.matching;
+        float[] approximate = buffers.approximate;
+        codes.scoreAll(queryEmbedding, slots, count, approximate);
+
+        int candidateCount = Math.min(count, Math.max(topK, topK * rerankFactor));
+        PriorityQueue<Integer> candidateIndexes = new PriorityQueue<>(Comparator.comparingDouble(i -> approximate[i]));
+        for (int i = 0; i < count && candidateCount > 0; i++) {
+            if (candidateIndexes.size() < candidateCount) {
+                candidateIndexes.add(i);
+            } else if (approximate[i] > approximate[candidateIndexes.peek()]) {
+                candidateIndexes.poll();
+                candidateIndexes.add(i);
+            }
+        }
+
+        int[] candidateSlots = buffers.candidates;
+        int candidates = 0;
+        for (int i : candidateIndexes) {
+            candidateSlots[candidates++] = slots[i];
+        }
+        float[] exact = buffers.exact;
+        store.dotAll(queryEmbedding, candidateSlots, candidates, exact, buffers.offsets);
+
+        List<SimilarityHit> hits = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            hits.add(new SimilarityHit(store.alertIdAt(candidateSlots[i]), exact[i]));
+        }
+        hits.sort(Comparator.comparingDouble(SimilarityHit::similarity).reversed());
+        return hits.size() > topK ? new ArrayList<>(hits.subList(0, topK)) : hits;
+    }
+
+    private static long toVersion(LocalDateTime updatedAt) {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+}
@@ -0,0 +1,33 @@
+package com.project.khoya.service.Image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Dot-product kernels for L2-normalized embeddings, where the dot product is the cosine similarity.
+ * Buffer variants read floats in the buffer's own byte order, starting at a byte offset.
+ */
+public interface SimilarityKernel {
+
+    float dot(float[] a, float[] b);
+
+    float dot(float[] query, ByteBuffer data, int byteOffset);
+
+    float dot(ByteBuffer data, int byteOffsetA, int byteOffsetB, int length);
+
+    /**
+     * Score one query against many stored vectors: {@code scores[i] = dot(query, data, byteOffsets[i])}.
+     */
+    default void dotAll(float[] query, ByteBuffer data, int[] byteOffsets, int count, float[] scores) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = dot(query, data, byteOffsets[i]);
+        }
+    }
+
+    default void dotAll(float[] query, float[][] vectors, float[] scores) {
+        for (int i = 0; i < vectors.length; i++) {
+            scores[i] = dot(query, vectors[i]);
+        }
+    }
+
+    String name();
+}
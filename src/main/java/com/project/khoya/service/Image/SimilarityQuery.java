@@ -0,0 +1,65 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertStatus;
+import lombok.Builder;
+import com.project.khoya.utils.GeoHash;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Similar-alert search request. All filters are optional; without a status set only ACTIVE alerts match.
+ */
+@Getter
+@Builder
+public class SimilarityQuery {
+
+    @Builder.Default
+    private int topK = 10;
+
+    @Builder.Default
+    private double threshold = 0.5;
+
+    // Case-insensitive substring of the alert location
+    private String location;
+
+    private LocalDateTime createdAfter;
+
+    private LocalDateTime createdBefore;
+
+    private Set<AlertStatus> statuses;
+
+    // Radius filter; applies only when all three are set. Alerts without coordinates never match it
+    private Double latitude;
+
+    private Double longitude;
+
+    private Double radiusKm;
+
+    public boolean hasRadius() {
+        return latitude != null && longitude != null && radiusKm != null;
+    }
+
+    public Set<AlertStatus> effectiveStatuses() {
+        return statuses == null || statuses.isEmpty() ? EnumSet.of(AlertStatus.ACTIVE) : EnumSet.copyOf(statuses);
+    }
+
+    public boolean matches(AlertAttributes attributes) {
+        if (attributes == null || !effectiveStatuses().contains(attributes.status())) {
+            return false;
+        }
+        if (createdAfter != null && (attributes.createdAt() == null || attributes.createdAt().isBefore(createdAfter))) {
+            return false;
+        }
+        if (createdBefore != null && (attributes.createdAt() == null || attributes.createdAt().isAfter(createdBefore))) {
+            return false;
+        }
+        if (hasRadius() && (attributes.latitude() == null || attributes.longitude() == null
+                || GeoHash.distanceKm(latitude, longitude, attributes.latitude(), attributes.longitude()) > radiusKm)) {
+            return false;
+        }
+        return location == null || location.isBlank() || (attributes.location() != null && attributes.location().toLowerCase().contains(location.trim().toLowerCase()));
+    }
+}
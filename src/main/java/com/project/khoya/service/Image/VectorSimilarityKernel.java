@@ -0,0 +1,71 @@
+package com.project.khoya.service.Image;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+
+/**
+ * SIMD kernel on the incubating Vector API; lanes follow the widest species the CPU supports.
+ * Only instantiated when the {@code jdk.incubator.vector} module is present (see SimilarityKernelConfig).
+ */
+public class VectorSimilarityKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int length = a.length;
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = FloatVector.fromArray(SPECIES, a, i).fma(FloatVector.fromArray(SPECIES, b, i), acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] query, ByteBuffer data, int byteOffset) {
+        int length = query.length;
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector stored = FloatVector.fromByteBuffer(SPECIES, data, byteOffset + i * Float.BYTES, data.order());
+            acc = FloatVector.fromArray(SPECIES, query, i).fma(stored, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += query[i] * data.getFloat(byteOffset + i * Float.BYTES);
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(ByteBuffer data, int byteOffsetA, int byteOffsetB, int length) {
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector a = FloatVector.fromByteBuffer(SPECIES, data, byteOffsetA + i * Float.BYTES, data.order());
+            FloatVector b = FloatVector.fromByteBuffer(SPECIES, data, byteOffsetB + i * Float.BYTES, data.order());
+            acc = a.fma(b, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += data.getFloat(byteOffsetA + i * Float.BYTES) * data.getFloat(byteOffsetB + i * Float.BYTES);
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.vectorBitSize() + "-bit)";
+    }
+}
@@ -0,0 +1,182 @@
+package com.project.khoya.service;
+
+import com.project.khoya.dto.AlertListParams;
+import com.project.khoya.utils.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finished JSON bodies of public GET responses, stored in Redis together with their ETag so a hit is written
+ * to the socket as-is (see {@code ResponseCacheFilter}).
+ * <p>
+ * Listing keys embed the {@link AlertCacheGenerations} key of their filter, so they go stale exactly when the
+ * matching {@code alerts} cache pages do. Single-alert keys embed the alert's own generation, bumped after
+ * every write to the alert, so no node can re-store a stale body under the current key. The social listing
+ * also carries vote and comment counts, so it adds one coarse generation that every vote or comment bumps.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseCacheService {
+
+    private static final String KEY_PREFIX = "response:";
+    private static final String SOCIAL_GENERATION_KEY = "response:alerts-social:generation";
+    // Quoted hex MD5, the same shape Spring's ShallowEtagHeaderFilter produces
+    private static final int ETAG_LENGTH = 35;
+
+    private final RedisTemplate<String, byte[]> rawRedisTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final AlertCacheGenerations cacheGenerations;
+
+    @Value("${app.cache.response.listing-ttl-seconds:600}")
+    private long listingTtlSeconds;
+
+    @Value("${app.cache.response.alert-ttl-seconds:300}")
+    private long alertTtlSeconds;
+
+    @Value("${app.cache.response.social-ttl-seconds:60}")
+    private long socialTtlSeconds;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * A cached body: bytes {@code [offset, offset + length)} of the stored value.
+     */
+    public record CachedResponse(String etag, byte[] value, int offset, int length) {
+    }
+
+    /**
+     * Key for one listing page, or null when it must not be cached right now.
+     */
+    public String listingKey(AlertListParams params) {
+        String generationKey = cacheGenerations.key(params.page(), params.size(), params.location(), params.status());
+        return AlertCacheGenerations.isTracked(generationKey) ? KEY_PREFIX + "alerts:" + generationKey : null;
+    }
+
+    /**
+     * Key for one alert, or null when its generation is unavailable.
+     */
+    public String alertKey(Long id) {
+        String generation = cacheGenerations.alertGeneration(id);
+        return generation == null ? null : KEY_PREFIX + "alert:" + id + ":" + generation;
+    }
+
+    /**
+     * Key for one anonymous social listing page, or null when it must not be cached right now.
+     */
+    public String socialListingKey(AlertListParams params) {
+        String generationKey = cacheGenerations.key(params.page(), params.size(), params.location(), params.status());
+        if (!AlertCacheGenerations.isTracked(generationKey)) {
+            return null;
+        }
+        String socialGeneration;
+        try {
+            socialGeneration = redisTemplate.opsForValue().get(SOCIAL_GENERATION_KEY);
+        } catch (Exception e) {
+            // Without the generation a vote could never invalidate the page
+            return null;
+        }
+        return KEY_PREFIX + "alerts-social:" + (socialGeneration == null ? "0" : socialGeneration) + ":" + params.sortBy() + ":" + generationKey;
+    }
+
+    public Duration listingTtl() {
+        return Duration.ofSeconds(listingTtlSeconds);
+    }
+
+    public Duration alertTtl() {
+        return Duration.ofSeconds(alertTtlSeconds);
+    }
+
+    public Duration socialTtl() {
+        return Duration.ofSeconds(socialTtlSeconds);
+    }
+
+    public CachedResponse get(String key) {
+        byte[] value;
+        try {
+            value = rawRedisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.warn("Response cache unavailable: {}", e.getMessage());
+            return null;
+        }
+        if (value == null || value.length < ETAG_LENGTH) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new CachedResponse(new String(value, 0, ETAG_LENGTH, StandardCharsets.US_ASCII), value, ETAG_LENGTH, value.length - ETAG_LENGTH);
+    }
+
+    /**
+     * Store a body and return its ETag.
+     */
+    public String put(String key, byte[] body, Duration ttl) {
+        String etag = etagOf(body);
+        byte[] value = new byte[ETAG_LENGTH + body.length];
+        System.arraycopy(etag.getBytes(StandardCharsets.US_ASCII), 0, value, 0, ETAG_LENGTH);
+        System.arraycopy(body, 0, value, ETAG_LENGTH, body.length);
+        try {
+            rawRedisTemplate.opsForValue().set(key, value, ttl);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.warn("Failed to store cached response: {}", e.getMessage());
+        }
+        return etag;
+    }
+
+    public void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    /**
+     * Retire the cached single-alert response once the transaction commits.
+     */
+    public void alertChanged(Long alertId) {
+        cacheGenerations.alertWritten(alertId);
+    }
+
+    /**
+     * Invalidate every cached social listing once the transaction commits (votes, comments).
+     */
+    public void socialChanged() {
+        TransactionHooks.afterCommit(() -> apply(() -> redisTemplate.opsForValue().increment(SOCIAL_GENERATION_KEY)));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("notModified", notModified.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    public static String etagOf(byte[] body) {
+        return "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private void apply(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            // Stale responses then live until their TTL
+            failures.incrementAndGet();
+            log.warn("Failed to invalidate cached responses: {}", e.getMessage());
+        }
+    }
+}
@@ -36,6 +36,10 @@ public class SocialInteractionService {
     private final VoteRepository voteRepository;
     private final MissingAlertRepository alertRepository;
     private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
+    private final AlertLeaderboardService leaderboardService;
+    private final TrendingService trendingService;
+    private final ResponseCacheService responseCache;
 
     // COMMENT OPERATIONS
 
@@ -67,6 +71,11 @@ public class SocialInteractionService {
         }
 
         Comment savedComment = commentRepository.save(comment);
+        userStatsService.commentAdded(userId);
+        alertRepository.applyCommentDelta(alertId, 1);
+        leaderboardService.commentCountChanged(alertId, 1);
+        responseCache.socialChanged();
+        trendingService.recordComment(alertId, alert.getLocation());
 
         return mapToCommentResponse(savedComment, userId);
     }
@@ -96,6 +105,14 @@ public class SocialInteractionService {
             throw new UnauthorizedOperationException("You can only delete your own comments");
         }
 
+        if (comment.getStatus() == CommentStatus.ACTIVE) {
+            Long alertId = comment.getAlert().getId();
+            userStatsService.commentsRemoved(comment.getAuthor().getId(), 1);
+            alertRepository.applyCommentDelta(alertId, -1);
+            leaderboardService.commentCountChanged(alertId, -1);
+            responseCache.socialChanged();
+        }
+
         // If comment has replies, mark as deleted instead of removing
         if (comment.getReplyCount() > 0) {
             comment.setContent("[Comment deleted]");
@@ -138,6 +155,8 @@ public class SocialInteractionService {
         }
 
         Optional<Vote> existingVote = voteRepository.findByUserIdAndAlertId(userId, alertId);
+        VoteType previousVote = existingVote.map(Vote::getType).orElse(null);
+        VoteType currentVote = request.getType();
 
         Map<String, Object> response = new HashMap<>();
 
@@ -146,6 +165,7 @@ public class SocialInteractionService {
             if (vote.getType() == request.getType()) {
                 // Remove vote if same type
                 voteRepository.delete(vote);
+                currentVote = null;
                 response.put("action", "removed");
             } else {
                 // Change vote type
@@ -163,6 +183,16 @@ public class SocialInteractionService {
             response.put("action", "added");
         }
 
+        int upvoteDelta = (currentVote == VoteType.UP ? 1 : 0) - (previousVote == VoteType.UP ? 1 : 0);
+        int downvoteDelta = (currentVote == VoteType.DOWN ? 1 : 0) - (previousVote == VoteType.DOWN ? 1 : 0);
+        alertRepository.applyVoteDelta(alertId, upvoteDelta, downvoteDelta);
+        leaderboardService.scoreChanged(alertId, upvoteDelta - downvoteDelta);
+        responseCache.socialChanged();
+        userStatsService.alertVoteChanged(alert.getPostedBy().getId(), previousVote, currentVote);
+        if (currentVote != null) {
+            trendingService.recordVote(alertId, alert.getLocation(), currentVote);
+        }
+
         // Get updated vote counts
         long upvotes = voteRepository.countByAlertIdAndType(alertId, VoteType.UP);
         long downvotes = voteRepository.countByAlertIdAndType(alertId, VoteType.DOWN);
@@ -174,6 +204,17 @@ public class SocialInteractionService {
         return response;
     }
 
+    public Map<String, Object> recordShare(Long alertId, Long userId) {
+        MissingAlert alert = alertRepository.findById(alertId).orElseThrow(() -> new AlertNotFoundException("Alert not found with id: " + alertId));
+        boolean counted = trendingService.recordShare(alertId, userId, alert.getLocation());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("alertId", alertId);
+        response.put("action", "shared");
+        response.put("counted", counted);
+        return response;
+    }
+
     public Map<String, Object> voteOnComment(Long commentId, VoteRequest request, Long userId) {
         Comment comment = commentRepository.findById(commentId).orElseThrow(() -> new RuntimeException("Comment not found"));
 
@@ -0,0 +1,198 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.CommentStatus;
+import com.project.khoya.entity.VoteType;
+import com.project.khoya.repository.CommentRepository;
+import com.project.khoya.repository.VoteRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trending alerts from recent engagement. Votes, comments and shares are counted per alert in coarse
+ * buckets (15 minutes by default) over a sliding window (see {@link EngagementWindow}); a scheduler turns
+ * them into an exponentially decayed hotness score and publishes ranked top-K lists, globally and per
+ * location. Reads only look at the last published snapshot.
+ * <p>
+ * Counters are in-process. Votes and comments are replayed from the database on startup; shares
+ * are not persisted and start from zero. A user's shares of one alert count once per window, deduplicated
+ * through a short-lived Redis key.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingService {
+
+    private final VoteRepository voteRepository;
+    private final CommentRepository commentRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private static final String SHARE_KEY_PREFIX = "trending:share:";
+
+    @Value("${app.trending.window-minutes:1440}")
+    private int windowMinutes;
+
+    @Value("${app.trending.bucket-minutes:15}")
+    private int bucketMinutes;
+
+    @Value("${app.trending.half-life-minutes:240}")
+    private double halfLifeMinutes;
+
+    @Value("${app.trending.top-k:100}")
+    private int topK;
+
+    @Value("${app.trending.weight.vote:1}")
+    private int voteWeight;
+
+    @Value("${app.trending.weight.comment:2}")
+    private int commentWeight;
+
+    @Value("${app.trending.weight.share:3}")
+    private int shareWeight;
+
+    private final Map<Long, EngagementWindow> windows = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of());
+
+    private int buckets;
+    // decay[age] = 0.5^(age * bucket width / half-life), age in buckets
+    private double[] decay;
+
+    public record TrendingEntry(Long alertId, double hotness) {
+    }
+
+    private record Snapshot(List<TrendingEntry> global, Map<String, List<TrendingEntry>> byLocation) {
+    }
+
+    @PostConstruct
+    public void init() {
+        buckets = Math.max(1, (windowMinutes + bucketMinutes - 1) / bucketMinutes);
+        decay = new double[buckets];
+        for (int age = 0; age < buckets; age++) {
+            decay[age] = Math.pow(0.5, age * bucketMinutes / halfLifeMinutes);
+        }
+    }
+
+    public void recordVote(Long alertId, String location, VoteType type) {
+        record(alertId, location, EngagementWindow.VOTES, type == VoteType.UP ? 1 : -1, currentBucket());
+    }
+
+    public void recordComment(Long alertId, String location) {
+        record(alertId, location, EngagementWindow.COMMENTS, 1, currentBucket());
+    }
+
+    /**
+     * Count a share unless this user already shared the alert within the window. Returns whether it counted;
+     * when Redis is unavailable the share is not counted, since repeats could not be told apart.
+     */
+    public boolean recordShare(Long alertId, Long userId, String location) {
+        try {
+            Boolean first = redisTemplate.opsForValue().setIfAbsent(SHARE_KEY_PREFIX + alertId + ":" + userId, "1", Duration.ofMinutes(windowMinutes));
+            if (!Boolean.TRUE.equals(first)) {
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("Share deduplication unavailable, not counting share of alert {}: {}", alertId, e.getMessage());
+            return false;
+        }
+        record(alertId, location, EngagementWindow.SHARES, 1, currentBucket());
+        return true;
+    }
+
+    public void forget(Long alertId) {
+        windows.remove(alertId);
+    }
+
+    /**
+     * Hottest alerts from the last snapshot, optionally restricted to one location.
+     */
+    public List<TrendingEntry> getTrending(String location, int limit) {
+        Snapshot current = snapshot;
+        List<TrendingEntry> ranked = location == null || location.isBlank() ? current.global() : current.byLocation().getOrDefault(normalize(location), List.of());
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:60000}")
+    public void refresh() {
+        long now = currentBucket();
+        List<TrendingEntry> all = new ArrayList<>();
+        Map<String, List<TrendingEntry>> byLocation = new HashMap<>();
+
+        windows.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+        windows.forEach((alertId, window) -> {
+            double hotness = window.hotness(now, decay, voteWeight, commentWeight, shareWeight);
+            if (hotness > 0) {
+                TrendingEntry entry = new TrendingEntry(alertId, hotness);
+                all.add(entry);
+                if (window.location() != null) {
+                    byLocation.computeIfAbsent(window.location(), key -> new ArrayList<>()).add(entry);
+                }
+            }
+        });
+
+        Map<String, List<TrendingEntry>> rankedByLocation = new HashMap<>();
+        byLocation.forEach((location, entries) -> rankedByLocation.put(location, rank(entries)));
+        snapshot = new Snapshot(rank(all), rankedByLocation);
+    }
+
+    /**
+     * Replay the votes and comments still inside the window so a restart does not empty the rankings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minusMinutes(windowMinutes);
+            int events = 0;
+            for (Object[] row : voteRepository.findAlertVotesSince(since)) {
+                record((Long) row[0], (String) row[1], EngagementWindow.VOTES, row[2] == VoteType.UP ? 1 : -1, toBucket((LocalDateTime) row[3]));
+                events++;
+            }
+            for (Object[] row : commentRepository.findAlertCommentsSince(since, CommentStatus.ACTIVE)) {
+                record((Long) row[0], (String) row[1], EngagementWindow.COMMENTS, 1, toBucket((LocalDateTime) row[2]));
+                events++;
+            }
+            refresh();
+            log.info("Trending warmed up from {} events across {} alerts", events, windows.size());
+        } catch (Exception e) {
+            log.warn("Failed to warm up trending counters: {}", e.getMessage());
+        }
+    }
+
+    private void record(Long alertId, String location, int kind, int amount, long bucket) {
+        EngagementWindow window = windows.computeIfAbsent(alertId, id -> new EngagementWindow(buckets, normalize(location)));
+        window.location(normalize(location));
+        window.record(kind, bucket, amount);
+    }
+
+    private List<TrendingEntry> rank(List<TrendingEntry> entries) {
+        return entries.stream().sorted(Comparator.comparingDouble(TrendingEntry::hotness).reversed()).limit(topK).toList();
+    }
+
+    private static String normalize(String location) {
+        return location == null || location.isBlank() ? null : location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / (bucketMinutes * 60_000L);
+    }
+
+    private long toBucket(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / (bucketMinutes * 60_000L);
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.UserStats;
+import com.project.khoya.entity.VoteType;
+import com.project.khoya.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the user_stats read model. Write paths apply small deltas in the same transaction as the
+ * change itself; a periodic rebuild recomputes everything to repair drift from writes that bypass
+ * the services (admin status changes, manual SQL).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+
+    public void alertCreated(Long userId) {
+        userStatsRepository.applyDelta(userId, 0, 1, 0, 0);
+    }
+
+    public void alertFound(Long userId) {
+        userStatsRepository.applyDelta(userId, 0, 0, 1, 0);
+    }
+
+    public void alertReopened(Long userId) {
+        userStatsRepository.applyDelta(userId, 0, 0, -1, 0);
+    }
+
+    /**
+     * Remove an alert's contribution: the alert itself and the score its votes gave the author.
+     */
+    public void alertDeleted(Long userId, boolean found, int score) {
+        userStatsRepository.applyDelta(userId, -score, -1, found ? -1 : 0, 0);
+    }
+
+    /**
+     * Adjust the author's reputation after a vote on their alert moved from {@code previous} to {@code current} (either may be null).
+     */
+    public void alertVoteChanged(Long authorId, VoteType previous, VoteType current) {
+        int delta = weight(current) - weight(previous);
+        if (delta != 0) {
+            userStatsRepository.applyDelta(authorId, delta, 0, 0, 0);
+        }
+    }
+
+    public void commentAdded(Long userId) {
+        userStatsRepository.applyDelta(userId, 0, 0, 0, 1);
+    }
+
+    public void commentsRemoved(Long userId, int count) {
+        if (count > 0) {
+            userStatsRepository.applyDelta(userId, 0, 0, 0, -count);
+        }
+    }
+
+    public Map<Long, UserStats> getStats(Collection<Long> userIds) {
+        return userStatsRepository.findAllById(userIds).stream().collect(Collectors.toMap(UserStats::getUserId, Function.identity()));
+    }
+
+    /**
+     * Recompute all counters from the source tables. Runs nightly and on startup when the table is still empty.
+     */
+    @Scheduled(cron = "${app.user-stats.rebuild-cron:0 30 3 * * ?}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int rows = userStatsRepository.rebuildAll();
+        log.info("Rebuilt user stats ({} rows affected) in {} ms", rows, System.currentTimeMillis() - start);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (userStatsRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to backfill user stats: {}", e.getMessage());
+        }
+    }
+
+    private static int weight(VoteType type) {
+        if (type == null) {
+            return 0;
+        }
+        return type == VoteType.UP ? 1 : -1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.khoya.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base-32 geohash encoding and the few spatial helpers built on it. A geohash prefix names a rectangular
+ * cell, and all points inside that cell share the prefix, so a cell is a contiguous range of sorted hashes.
+ */
+public final class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    public static final int MAX_PRECISION = 12;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lonBit = true;
+        int bits = 0;
+        int value = 0;
+
+        while (hash.length() < precision) {
+            if (lonBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lonBit = !lonBit;
+            if (++bits == 5) {
+                hash.append(BASE32[value]);
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cell height in degrees latitude at the given precision.
+     */
+    public static double cellHeight(int precision) {
+        int latBits = (precision * 5) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    /**
+     * Cell width in degrees longitude at the given precision.
+     */
+    public static double cellWidth(int precision) {
+        int lonBits = (precision * 5 + 1) / 2;
+        return 360.0 / (1L << lonBits);
+    }
+
+    /**
+     * Hashes of every cell at {@code precision} that intersects the box. Callers choose the precision so the
+     * result stays small; see {@link #precisionFor}.
+     */
+    public static List<String> coveringCells(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        List<String> cells = new ArrayList<>();
+
+        // Step through cell centres, starting at the cell that holds the box's south-west corner
+        double startLat = Math.floor((minLat + 90) / height) * height - 90 + height / 2;
+        double startLon = Math.floor((minLon + 180) / width) * width - 180 + width / 2;
+        for (double lat = startLat; lat - height / 2 <= maxLat && lat < 90; lat += height) {
+            for (double lon = startLon; lon - width / 2 <= maxLon && lon < 180; lon += width) {
+                cells.add(encode(lat, lon, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Finest precision at which the box is covered by at most {@code maxCells} cells.
+     */
+    public static int precisionFor(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        for (int precision = MAX_PRECISION; precision > 1; precision--) {
+            if (cellCount(minLat, minLon, maxLat, maxLon, precision) <= maxCells) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Upper bound on the number of cells at {@code precision} that intersect the box.
+     */
+    public static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        long rows = (long) Math.ceil((maxLat - minLat) / cellHeight(precision)) + 1;
+        long cols = (long) Math.ceil((maxLon - minLon) / cellWidth(precision)) + 1;
+        return rows * cols;
+    }
+
+    /**
+     * Great-circle distance in kilometres.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Bounding box {minLat, minLon, maxLat, maxLon} of the circle, clamped at the poles and antimeridian.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double dLon = cosLat < 1e-6 ? 180 : Math.min(180, Math.toDegrees(radiusKm / (EARTH_RADIUS_KM * cosLat)));
+        return new double[]{Math.max(-90, latitude - dLat), Math.max(-180, longitude - dLon), Math.min(90, latitude + dLat), Math.min(180, longitude + dLon)};
+    }
+}
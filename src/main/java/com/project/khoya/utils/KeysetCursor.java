@@ -0,0 +1,108 @@
+package com.project.khoya.utils;
+
+import com.project.khoya.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opaque feed cursors. A cursor carries the sort mode and the sort-key values of the last row served,
+ * e.g. (createdAt, id) or (score, createdAt, id), as URL-safe Base64 of
+ * {@code v1|sortBy|key:type:value,...}. Clients must treat it as an opaque string.
+ */
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String sortBy, ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+
+        StringBuilder keys = new StringBuilder();
+        for (Map.Entry<String, Object> entry : keyset.getKeys().entrySet()) {
+            if (!keys.isEmpty()) {
+                keys.append(',');
+            }
+            keys.append(entry.getKey()).append(':').append(typeOf(entry.getValue())).append(':').append(entry.getValue());
+        }
+
+        String raw = VERSION + "|" + sortBy + "|" + keys;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position to continue from; the initial position for a blank cursor. The cursor must carry exactly the
+     * properties of {@code sort}, in order, so a hand-made cursor cannot seek on other columns.
+     *
+     * @throws InvalidCursorException for malformed, foreign or tampered cursors
+     */
+    public static KeysetScrollPosition decode(String cursor, String sortBy, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new InvalidCursorException("Unsupported cursor");
+            }
+            if (!parts[1].equals(sortBy)) {
+                throw new InvalidCursorException("Cursor was issued for sort '" + parts[1] + "', not '" + sortBy + "'");
+            }
+
+            List<String> expected = new ArrayList<>();
+            sort.forEach(order -> expected.add(order.getProperty()));
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String key : parts[2].split(",")) {
+                String[] field = key.split(":", 3);
+                if (field.length != 3 || keys.containsKey(field[0])) {
+                    throw new InvalidCursorException("Malformed cursor");
+                }
+                keys.put(field[0], parse(field[1], field[2]));
+            }
+            if (!expected.equals(new ArrayList<>(keys.keySet()))) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return ScrollPosition.forward(keys);
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof LocalDateTime) {
+            return "t";
+        }
+        if (value instanceof Long) {
+            return "l";
+        }
+        if (value instanceof Integer) {
+            return "i";
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + (value == null ? "null" : value.getClass().getSimpleName()));
+    }
+
+    private static Object parse(String type, String value) {
+        return switch (type) {
+            case "t" -> LocalDateTime.parse(value);
+            case "l" -> Long.valueOf(value);
+            case "i" -> Integer.valueOf(value);
+            default -> throw new InvalidCursorException("Malformed cursor");
+        };
+    }
+}
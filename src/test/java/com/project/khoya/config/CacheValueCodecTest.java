@@ -0,0 +1,97 @@
+package com.project.khoya.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.khoya.dto.AlertListResponse;
+import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.entity.AlertStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheValueCodecTest {
+
+    private static final JavaType PAGE_TYPE = new ObjectMapper().getTypeFactory().constructType(AlertListResponse.class);
+
+    @ParameterizedTest
+    @EnumSource(CacheValueCodec.Format.class)
+    void roundTripsEveryFormat(CacheValueCodec.Format format) {
+        AlertListResponse page = samplePage(5);
+
+        assertThat(new CacheValueCodec(PAGE_TYPE, format, 0).deserialize(new CacheValueCodec(PAGE_TYPE, format, 0).serialize(page))).isEqualTo(page);
+        assertThat(new CacheValueCodec(PAGE_TYPE, format, 1).deserialize(new CacheValueCodec(PAGE_TYPE, format, 1).serialize(page))).isEqualTo(page);
+    }
+
+    @Test
+    void compressesLargeValuesOnly() {
+        AlertListResponse page = samplePage(20);
+        byte[] plain = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.JSON, 0).serialize(page);
+        byte[] compressed = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.JSON, 256).serialize(page);
+        byte[] belowThreshold = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.JSON, plain.length + 1).serialize(page);
+
+        assertThat(compressed.length).isLessThan(plain.length);
+        assertThat(compressed[3]).isEqualTo((byte) 1);
+        assertThat(belowThreshold).isEqualTo(plain);
+    }
+
+    @Test
+    void decodesByHeaderRatherThanOwnSettings() {
+        AlertListResponse page = samplePage(10);
+        byte[] smileCompressed = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.SMILE, 64).serialize(page);
+
+        assertThat(new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.JSON, 0).deserialize(smileCompressed)).isEqualTo(page);
+    }
+
+    @Test
+    void treatsUnknownValuesAsMisses() {
+        CacheValueCodec codec = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.CBOR, 0);
+        byte[] headerless = "{\"page\":0}".getBytes(StandardCharsets.UTF_8);
+        byte[] futureVersion = codec.serialize(samplePage(1));
+        futureVersion[1] = CacheValueCodec.VERSION + 1;
+        byte[] unknownFormat = codec.serialize(samplePage(1));
+        unknownFormat[2] = 42;
+        byte[] truncated = new byte[]{CacheValueCodec.MARKER, CacheValueCodec.VERSION, 1, 0, '{'};
+
+        assertThat(codec.deserialize(headerless)).isNull();
+        assertThat(codec.deserialize(futureVersion)).isNull();
+        assertThat(codec.deserialize(unknownFormat)).isNull();
+        assertThat(codec.deserialize(truncated)).isNull();
+    }
+
+    @Test
+    void storesNullAsEmpty() {
+        CacheValueCodec codec = new CacheValueCodec(PAGE_TYPE, CacheValueCodec.Format.JSON, 0);
+
+        assertThat(codec.serialize(null)).isEmpty();
+        assertThat(codec.deserialize(new byte[0])).isNull();
+        assertThat(codec.deserialize(null)).isNull();
+    }
+
+    private static AlertListResponse samplePage(int size) {
+        List<AlertResponse> alerts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2024, 5, 14, 18, 30, 12, 123_456_000);
+        for (int i = 0; i < size; i++) {
+            alerts.add(AlertResponse.builder()
+                    .id(1000L + i)
+                    .title("Missing Person - Rahul Sharma " + i)
+                    .description("Last seen wearing a blue school uniform and carrying a red backpack near the main bus stand.")
+                    .location("Shivaji Nagar, Pune, Maharashtra")
+                    .latitude(18.5308 + i * 0.001)
+                    .longitude(73.8475 - i * 0.001)
+                    .status(AlertStatus.ACTIVE)
+                    .reportCount(i % 4)
+                    .createdAt(now.minusHours(i))
+                    .updatedAt(now.minusMinutes(i * 7L))
+                    .postedBy(new AlertResponse.UserInfo(500L + i, "Priya Deshmukh", "priya.deshmukh" + i + "@example.com"))
+                    .build());
+        }
+        return AlertListResponse.builder().alerts(alerts).page(0).size(size).totalElements(348).totalPages(18).isFirst(true).isLast(false).build();
+    }
+}
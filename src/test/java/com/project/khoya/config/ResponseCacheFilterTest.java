@@ -0,0 +1,155 @@
+package com.project.khoya.config;
+
+import com.project.khoya.service.ResponseCacheService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheFilterTest {
+
+    private static final String KEY = "response:alert:7";
+    private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+    private static final byte[] BODY = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+
+    private ResponseCacheService responseCache;
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = mock(ResponseCacheService.class);
+        when(responseCache.alertKey(7L)).thenReturn(KEY);
+        when(responseCache.alertTtl()).thenReturn(Duration.ofMinutes(1));
+        filter = new ResponseCacheFilter(responseCache);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 1024);
+    }
+
+    @Test
+    void hitServesStoredBytesWithoutTheController() throws Exception {
+        // The cached value is a slice of a larger buffer
+        byte[] buffer = new byte[BODY.length + 4];
+        System.arraycopy(BODY, 0, buffer, 4, BODY.length);
+        when(responseCache.get(KEY)).thenReturn(new ResponseCacheService.CachedResponse(ETAG, buffer, 4, BODY.length));
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(null), response, chain);
+
+        verify(chain, never()).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+        verify(responseCache, never()).recordNotModified();
+    }
+
+    @Test
+    void hitWithMatchingEtagAnswersNotModified() throws Exception {
+        when(responseCache.get(KEY)).thenReturn(new ResponseCacheService.CachedResponse(ETAG, BODY, 0, BODY.length));
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("\"other\", W/" + ETAG), response, chain);
+
+        verify(chain, never()).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        verify(responseCache).recordNotModified();
+    }
+
+    @Test
+    void hitWithStaleEtagServesTheBody() throws Exception {
+        when(responseCache.get(KEY)).thenReturn(new ResponseCacheService.CachedResponse(ETAG, BODY, 0, BODY.length));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("\"stale\""), response, mock(FilterChain.class));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void missStoresTheBodyAndAddsItsEtag() throws Exception {
+        when(responseCache.put(eq(KEY), any(), any())).thenReturn(ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(null), response, controller(MediaType.APPLICATION_JSON_VALUE, 200));
+
+        verify(responseCache).put(KEY, BODY, Duration.ofMinutes(1));
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void missWithMatchingEtagAnswersNotModified() throws Exception {
+        when(responseCache.put(eq(KEY), any(), any())).thenReturn(ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(ETAG), response, controller(MediaType.APPLICATION_JSON_VALUE, 200));
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        verify(responseCache).recordNotModified();
+    }
+
+    @Test
+    void errorsAndOtherContentTypesAreNotStored() throws Exception {
+        MockHttpServletResponse notFound = new MockHttpServletResponse();
+        filter.doFilter(request(null), notFound, controller(MediaType.APPLICATION_JSON_VALUE, 404));
+
+        MockHttpServletResponse text = new MockHttpServletResponse();
+        filter.doFilter(request(null), text, controller(MediaType.TEXT_PLAIN_VALUE, 200));
+
+        verify(responseCache, never()).put(any(), any(), any());
+        assertThat(notFound.getStatus()).isEqualTo(404);
+        assertThat(notFound.getContentAsByteArray()).isEqualTo(BODY);
+        assertThat(text.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(text.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void nonGetRequestsPassThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/alerts/7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        verify(responseCache, never()).get(any());
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/alerts/7");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    private static FilterChain controller(String contentType, int status) {
+        return (request, response) -> {
+            response.setContentType(contentType);
+            ((HttpServletResponse) response).setStatus(status);
+            response.getOutputStream().write(BODY);
+        };
+    }
+}
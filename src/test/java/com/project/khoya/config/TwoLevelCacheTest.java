@@ -0,0 +1,150 @@
+package com.project.khoya.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void coalescesConcurrentMissesIntoOneLoad() throws Exception {
+        TwoLevelCache cache = cache(0, 5_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("page-0", () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "loaded";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getLoads()).isEqualTo(1);
+        assertThat(cache.getRemoteCache().get("page-0", String.class)).isEqualTo("loaded");
+    }
+
+    @Test
+    void waitersSeeTheLeadersFailure() throws Exception {
+        TwoLevelCache cache = cache(0, 5_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("page-0", () -> {
+                calls.incrementAndGet();
+                release.await();
+                throw new IllegalStateException("database down");
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database down");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(cache.get("page-0")).isNull();
+    }
+
+    @Test
+    void waiterLoadsItselfOnceTheWaitRunsOut() throws Exception {
+        TwoLevelCache cache = cache(0, 50);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> cache.get("page-0", () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "leader";
+        }));
+        Thread.sleep(100);
+
+        assertThat(cache.get("page-0", () -> {
+            calls.incrementAndGet();
+            return "waiter";
+        })).isEqualTo("waiter");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void refreshesAheadOfExpiryWhileOthersKeepTheCachedValue() throws Exception {
+        // A huge beta makes the early refresh all but certain
+        TwoLevelCache cache = cache(1_000_000, 5_000);
+        cache.get("warm-up", () -> {
+            Thread.sleep(20);
+            return "x";
+        });
+        cache.getLocalCache().put("page-0", new TwoLevelCache.LocalEntry("old", System.currentTimeMillis() + 60_000));
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> refresher = executor.submit(() -> cache.get("page-0", () -> {
+            loading.countDown();
+            release.await();
+            return "new";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.get("page-0", () -> "unexpected load")).isEqualTo("old");
+        release.countDown();
+
+        assertThat(refresher.get(5, TimeUnit.SECONDS)).isEqualTo("new");
+        assertThat(cache.getEarlyRefreshes()).isEqualTo(1);
+        assertThat(cache.get("page-0", String.class)).isEqualTo("new");
+    }
+
+    @Test
+    void neverRefreshesEarlyWhenDisabled() throws Exception {
+        TwoLevelCache cache = cache(0, 5_000);
+        cache.get("warm-up", () -> {
+            Thread.sleep(20);
+            return "x";
+        });
+        cache.getLocalCache().put("page-0", new TwoLevelCache.LocalEntry("old", System.currentTimeMillis() + 60_000));
+
+        assertThat(cache.get("page-0", () -> "new")).isEqualTo("old");
+        assertThat(cache.getEarlyRefreshes()).isZero();
+    }
+
+    private static TwoLevelCache cache(double earlyRefreshBeta, long singleFlightWaitMillis) {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new ConcurrentMapCacheManager("alerts"), mock(StringRedisTemplate.class), 100, Duration.ofMinutes(5), earlyRefreshBeta, singleFlightWaitMillis);
+        Cache cache = manager.getCache("alerts");
+        return (TwoLevelCache) cache;
+    }
+}
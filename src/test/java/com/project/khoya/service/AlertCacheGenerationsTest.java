@@ -0,0 +1,128 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.AlertStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AlertCacheGenerationsTest {
+
+    private static final String HASH_KEY = "cache:alerts:generations";
+
+    // Redis hashes by key
+    private final Map<String, Map<Object, Object>> redis = new ConcurrentHashMap<>();
+    private StringRedisTemplate redisTemplate;
+    private AlertCacheGenerations generations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(hash.putIfAbsent(anyString(), any(), any())).thenAnswer(call -> hash(call.getArgument(0)).putIfAbsent(call.getArgument(1), call.getArgument(2)) == null);
+        when(hash.entries(anyString())).thenAnswer(call -> Map.copyOf(hash(call.getArgument(0))));
+        when(hash.keys(anyString())).thenAnswer(call -> new HashSet<>(hash(call.getArgument(0)).keySet()));
+        when(hash.get(anyString(), any())).thenAnswer(call -> hash(call.getArgument(0)).get(call.getArgument(1)));
+        when(hash.increment(anyString(), any(), anyLong())).thenAnswer(call -> increment(call.getArgument(0), call.getArgument(1), call.getArgument(2)));
+        redisTemplate = mock(StringRedisTemplate.class);
+        doReturn(hash).when(redisTemplate).opsForHash();
+
+        generations = new AlertCacheGenerations(redisTemplate);
+        ReflectionTestUtils.setField(generations, "generationTtlHours", 24L);
+        ReflectionTestUtils.setField(generations, "refreshMillis", 60_000L);
+        ReflectionTestUtils.setField(generations, "alertGenerationsMaxSize", 100L);
+        generations.init();
+    }
+
+    @Test
+    void writesInvalidateOnlyTheListingsTheAlertMatches() {
+        String pune = generations.key(0, 10, "pune ", AlertStatus.ACTIVE);
+        String mumbai = generations.key(0, 10, "Mumbai", AlertStatus.ACTIVE);
+        String found = generations.key(0, 10, null, AlertStatus.FOUND);
+        String all = generations.key(0, 10, null, null);
+
+        generations.alertCreated("Shivaji Nagar, Pune", AlertStatus.ACTIVE);
+
+        assertThat(generations.key(0, 10, "pune ", AlertStatus.ACTIVE)).isNotEqualTo(pune);
+        assertThat(generations.key(0, 10, null, null)).isNotEqualTo(all);
+        assertThat(generations.key(0, 10, "Mumbai", AlertStatus.ACTIVE)).isEqualTo(mumbai);
+        assertThat(generations.key(0, 10, null, AlertStatus.FOUND)).isEqualTo(found);
+    }
+
+    @Test
+    void statusChangeInvalidatesBothSides() {
+        String active = generations.key(0, 10, null, AlertStatus.ACTIVE);
+        String found = generations.key(0, 10, null, AlertStatus.FOUND);
+        String closed = generations.key(0, 10, null, AlertStatus.CLOSED);
+
+        generations.alertChanged("Pune", AlertStatus.ACTIVE, "Pune", AlertStatus.FOUND);
+
+        assertThat(generations.key(0, 10, null, AlertStatus.ACTIVE)).isNotEqualTo(active);
+        assertThat(generations.key(0, 10, null, AlertStatus.FOUND)).isNotEqualTo(found);
+        assertThat(generations.key(0, 10, null, AlertStatus.CLOSED)).isEqualTo(closed);
+    }
+
+    @Test
+    void readsUseTheSnapshotUntilAnotherNodeAnnouncesABump() {
+        String before = generations.key(0, 10, null, null);
+        // Another node bumps the counter directly in Redis
+        redis.get(HASH_KEY).put("|*", "7");
+
+        assertThat(generations.key(0, 10, null, null)).isEqualTo(before);
+
+        generations.onMessage(message("other-node|alerts-generations|G|"), null);
+
+        assertThat(generations.key(0, 10, null, null)).isNotEqualTo(before).contains(":7:");
+    }
+
+    @Test
+    void unavailableRedisHandsOutUntrackedKeys() {
+        when(redisTemplate.opsForHash()).thenThrow(new IllegalStateException("connection refused"));
+
+        String first = generations.key(0, 10, "Pune", AlertStatus.ACTIVE);
+        String second = generations.key(0, 10, "Pune", AlertStatus.ACTIVE);
+
+        assertThat(AlertCacheGenerations.isTracked(first)).isFalse();
+        assertThat(first).isNotEqualTo(second);
+        assertThat(generations.alertGeneration(7L)).isNull();
+    }
+
+    @Test
+    void alertGenerationsMoveOnEveryWrite() {
+        assertThat(generations.alertGeneration(7L)).isEqualTo("0");
+
+        generations.alertWritten(7L);
+        generations.alertWritten(7L);
+
+        assertThat(generations.alertGeneration(7L)).isEqualTo("2");
+        assertThat(generations.alertGeneration(8L)).isEqualTo("0");
+    }
+
+    private Map<Object, Object> hash(String key) {
+        return redis.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    private Long increment(String key, Object field, long delta) {
+        Object value = hash(key).merge(field, String.valueOf(delta), (current, added) -> String.valueOf(Long.parseLong((String) current) + delta));
+        return Long.valueOf((String) value);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("cache:invalidation".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
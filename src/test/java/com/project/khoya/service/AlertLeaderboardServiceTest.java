@@ -0,0 +1,174 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.CommentStatus;
+import com.project.khoya.entity.VoteType;
+import com.project.khoya.repository.CommentRepository;
+import com.project.khoya.repository.MissingAlertRepository;
+import com.project.khoya.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlertLeaderboardServiceTest {
+
+    private static final String SCORE_KEY = "leaderboard:alerts:score";
+
+    // Sorted sets and seeded markers in Redis
+    private final Map<String, Map<String, Double>> zSets = new HashMap<>();
+    private final Set<String> markers = new HashSet<>();
+
+    private final MissingAlertRepository alertRepository = mock(MissingAlertRepository.class);
+    private final VoteRepository voteRepository = mock(VoteRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private AlertLeaderboardService leaderboard;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenAnswer(call -> zSet(call.getArgument(0)).put(call.getArgument(1), call.getArgument(2)) == null);
+        when(zSet.remove(anyString(), any())).thenAnswer(call -> zSet(call.getArgument(0)).remove((String) call.getArgument(1)) == null ? 0L : 1L);
+        when(zSet.rangeWithScores(anyString(), anyLong(), anyLong())).thenAnswer(call -> zSet(call.getArgument(0)).entrySet().stream()
+                .map(entry -> new DefaultTypedTuple<>(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toSet()));
+        when(zSet.reverseRange(anyString(), anyLong(), anyLong())).thenAnswer(call -> zSet(call.getArgument(0)).entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit((long) call.getArgument(2) + 1)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        doAnswer(call -> markers.add(call.getArgument(0))).when(values).set(anyString(), anyString());
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(redisTemplate.hasKey(anyString())).thenAnswer(call -> markers.contains((String) call.getArgument(0)));
+
+        leaderboard = new AlertLeaderboardService(redisTemplate, alertRepository, voteRepository, commentRepository);
+    }
+
+    @Test
+    void readsFallBackToTheDatabaseUntilTheFirstCheckSeeds() {
+        database(rows(alert(1L, 2, 0, 1), alert(2L, 5, 1, 0)),
+                rows(votes(1L, VoteType.UP, 2), votes(2L, VoteType.UP, 5), votes(2L, VoteType.DOWN, 1)),
+                rows(comments(1L, 1)));
+        // Increments before the seed leave a partial set behind
+        zSet(SCORE_KEY).put("2", 1.0);
+
+        assertThat(leaderboard.topByScore(10)).isNull();
+
+        leaderboard.checkConsistency();
+
+        assertThat(leaderboard.topByScore(10)).containsExactly(2L, 1L);
+        assertThat(leaderboard.topByComments(1)).containsExactly(1L);
+        assertThat(zSet(SCORE_KEY)).containsEntry("2", 4.0);
+    }
+
+    @Test
+    void driftIsRepairedOnlyWhenTheNextCheckStillSeesIt() {
+        database(rows(alert(1L, 3, 0, 0)), rows(votes(1L, VoteType.UP, 3)), rows());
+        leaderboard.checkConsistency();
+
+        // A lost increment, and a member left behind by a lost delete
+        zSet(SCORE_KEY).put("1", 2.0);
+        zSet(SCORE_KEY).put("9", 7.0);
+        leaderboard.checkConsistency();
+
+        assertThat(zSet(SCORE_KEY)).containsEntry("1", 2.0).containsKey("9");
+
+        leaderboard.checkConsistency();
+
+        assertThat(zSet(SCORE_KEY)).containsExactlyEntriesOf(Map.of("1", 3.0));
+    }
+
+    @Test
+    void suspectThatCaughtUpIsLeftAlone() {
+        database(rows(alert(1L, 3, 0, 0)), rows(votes(1L, VoteType.UP, 3)), rows());
+        leaderboard.checkConsistency();
+
+        // An increment that committed between the database read and the Redis read
+        zSet(SCORE_KEY).put("1", 4.0);
+        leaderboard.checkConsistency();
+        database(rows(alert(1L, 4, 0, 0)), rows(votes(1L, VoteType.UP, 4)), rows());
+        leaderboard.checkConsistency();
+        leaderboard.checkConsistency();
+
+        assertThat(zSet(SCORE_KEY)).containsEntry("1", 4.0);
+    }
+
+    @Test
+    void recountsAlertsWhoseColumnsDrifted() {
+        List<Object[]> alerts = new ArrayList<>();
+        alerts.add(alert(1L, 2, 1, 3));
+        // Score out of step with the vote columns
+        alerts.add(new Object[]{2L, 1, 0, 0, 0});
+        // Missed comment
+        alerts.add(alert(3L, 0, 0, 1));
+        database(alerts,
+                rows(votes(1L, VoteType.UP, 2), votes(1L, VoteType.DOWN, 1), votes(2L, VoteType.UP, 1)),
+                rows(comments(1L, 3), comments(3L, 2)));
+
+        leaderboard.checkConsistency();
+
+        verify(alertRepository).recountEngagement(List.of(2L, 3L));
+    }
+
+    @Test
+    void consistentColumnsAreNotRecounted() {
+        database(rows(alert(1L, 2, 1, 3)), rows(votes(1L, VoteType.UP, 2), votes(1L, VoteType.DOWN, 1)), rows(comments(1L, 3)));
+
+        leaderboard.checkConsistency();
+
+        verify(alertRepository, never()).recountEngagement(any());
+    }
+
+    private void database(List<Object[]> alerts, List<Object[]> votes, List<Object[]> comments) {
+        when(alertRepository.findEngagementCounts()).thenReturn(alerts);
+        when(voteRepository.getVoteCountsForAllAlerts()).thenReturn(votes);
+        when(commentRepository.countAllByAlertAndStatus(CommentStatus.ACTIVE)).thenReturn(comments);
+    }
+
+    private Map<String, Double> zSet(String key) {
+        return zSets.computeIfAbsent(key, k -> new HashMap<>());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    // Row of findEngagementCounts with consistent columns: (id, upvotes, downvotes, commentCount, score)
+    private static Object[] alert(Long id, int upvotes, int downvotes, int commentCount) {
+        return new Object[]{id, upvotes, downvotes, commentCount, upvotes - downvotes};
+    }
+
+    private static Object[] votes(Long alertId, VoteType type, long count) {
+        return new Object[]{alertId, type, count};
+    }
+
+    private static Object[] comments(Long alertId, long count) {
+        return new Object[]{alertId, count};
+    }
+}
@@ -0,0 +1,170 @@
+package com.project.khoya.service;
+
+import com.project.khoya.dto.AlertResponse;
+import com.project.khoya.dto.AlertSummary;
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.entity.MissingAlert;
+import com.project.khoya.repository.MissingAlertRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AlertSearchServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    // missing_alerts by id
+    private final Map<Long, AlertSummary> alerts = new LinkedHashMap<>();
+    private final MissingAlertRepository alertRepository = mock(MissingAlertRepository.class);
+    private AlertSearchService search;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(alertRepository.findSummariesAfterId(anyLong(), any())).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            return alerts.values().stream().filter(alert -> alert.id() > afterId).toList();
+        });
+        when(alertRepository.findSummariesByIds(anyList())).thenAnswer(call -> {
+            // The database returns rows in no particular order
+            List<AlertSummary> rows = new ArrayList<>();
+            for (Long id : call.<List<Long>>getArgument(0)) {
+                if (alerts.containsKey(id)) {
+                    rows.add(alerts.get(id));
+                }
+            }
+            Collections.reverse(rows);
+            return rows;
+        });
+
+        search = new AlertSearchService(alertRepository);
+        ReflectionTestUtils.setField(search, "indexPath", directory.toString());
+        search.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        search.close();
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() throws Exception {
+        alert(1L, "Elderly man missing", "Grandfather of Rahul, last seen at the market", "Pune", AlertStatus.ACTIVE, NOW);
+        alert(2L, "Rahul Sharma missing", "Boy in a blue school uniform", "Pune", AlertStatus.ACTIVE, NOW.minusDays(3));
+        alert(3L, "Dog missing", "Brown labrador", "Mumbai", AlertStatus.ACTIVE, NOW);
+        search.rebuild();
+
+        assertThat(ids(search.search("rahul", null, null, null, 0, 10).getAlerts())).containsExactly(2L, 1L);
+        assertThat(search.search("rahul", null, null, null, 0, 10).getTotalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void blankQueryListsNewestFirstWithinTheFilters() throws Exception {
+        alert(1L, "Missing", "One", "Pune", AlertStatus.ACTIVE, NOW.minusDays(1));
+        alert(2L, "Missing", "Two", "Pune", AlertStatus.FOUND, NOW);
+        alert(3L, "Missing", "Three", "Pune", AlertStatus.ACTIVE, NOW.plusHours(1));
+        alert(4L, "Missing", "Four", "Pune", AlertStatus.ACTIVE, NOW.minusDays(10));
+        search.rebuild();
+
+        assertThat(ids(search.search(" ", AlertStatus.ACTIVE, null, null, 0, 10).getAlerts())).containsExactly(3L, 1L, 4L);
+        assertThat(ids(search.search(null, null, NOW.minusDays(2), null, 0, 10).getAlerts())).containsExactly(3L, 2L, 1L);
+        assertThat(ids(search.search(null, AlertStatus.ACTIVE, null, NOW.minusDays(1), 0, 10).getAlerts())).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void pagesSkipEarlierHits() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            alert(id, "Missing", "Alert " + id, "Pune", AlertStatus.ACTIVE, NOW.plusMinutes(id));
+        }
+        search.rebuild();
+
+        assertThat(ids(search.search(null, null, null, null, 1, 2).getAlerts())).containsExactly(3L, 2L);
+        assertThat(ids(search.search(null, null, null, null, 2, 2).getAlerts())).containsExactly(1L);
+        assertThat(search.search(null, null, null, null, 2, 2).getTotalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void writesBecomeSearchableAfterARefresh() {
+        MissingAlert missingAlert = entity(alert(1L, "Rahul missing", "Blue shirt", "Pune", AlertStatus.ACTIVE, NOW));
+
+        search.index(missingAlert);
+        assertThat(search.search("rahul", null, null, null, 0, 10).getAlerts()).isEmpty();
+
+        search.refresh();
+        assertThat(ids(search.search("rahul", null, null, null, 0, 10).getAlerts())).containsExactly(1L);
+
+        missingAlert.setTitle("Priya missing");
+        search.index(missingAlert);
+        search.refresh();
+        assertThat(search.search("rahul", null, null, null, 0, 10).getAlerts()).isEmpty();
+        assertThat(ids(search.search("priya", null, null, null, 0, 10).getAlerts())).containsExactly(1L);
+
+        search.remove(1L);
+        search.refresh();
+        assertThat(search.search("priya", null, null, null, 0, 10).getAlerts()).isEmpty();
+    }
+
+    @Test
+    void alertsDeletedSinceTheLastRefreshDropOut() throws Exception {
+        alert(1L, "Rahul missing", "Blue shirt", "Pune", AlertStatus.ACTIVE, NOW);
+        alert(2L, "Rahul found", "Red shirt", "Pune", AlertStatus.ACTIVE, NOW);
+        search.rebuild();
+
+        alerts.remove(1L);
+
+        assertThat(ids(search.search("rahul", null, null, null, 0, 10).getAlerts())).containsExactly(2L);
+    }
+
+    @Test
+    void failedRebuildKeepsTheOldIndex() throws Exception {
+        alert(1L, "Rahul missing", "Blue shirt", "Pune", AlertStatus.ACTIVE, NOW);
+        search.rebuild();
+        when(alertRepository.findSummariesAfterId(eq(0L), any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(search::rebuild).hasMessage("database down");
+
+        assertThat(ids(search.search("rahul", null, null, null, 0, 10).getAlerts())).containsExactly(1L);
+    }
+
+    private AlertSummary alert(Long id, String title, String description, String location, AlertStatus status, LocalDateTime createdAt) {
+        AlertSummary summary = new AlertSummary(id, title, description, location, null, null, null, status, 0, createdAt, createdAt, null, 1L, "Priya", "priya@example.com");
+        alerts.put(id, summary);
+        return summary;
+    }
+
+    private static MissingAlert entity(AlertSummary summary) {
+        MissingAlert alert = new MissingAlert();
+        alert.setId(summary.id());
+        alert.setTitle(summary.title());
+        alert.setDescription(summary.description());
+        alert.setLocation(summary.location());
+        alert.setStatus(summary.status());
+        alert.setCreatedAt(summary.createdAt());
+        return alert;
+    }
+
+    private static List<Long> ids(List<AlertResponse> alerts) {
+        return alerts.stream().map(AlertResponse::getId).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.khoya.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EngagementWindowTest {
+
+    private static final double[] DECAY = {1.0, 0.5, 0.25, 0.125};
+
+    @Test
+    void weighsEngagementByBucketAge() {
+        EngagementWindow window = new EngagementWindow(4, "Pune");
+        window.record(EngagementWindow.VOTES, 100, 2);
+        window.record(EngagementWindow.COMMENTS, 101, 1);
+        window.record(EngagementWindow.SHARES, 103, 1);
+
+        // votes x1 at age 3, comments x3 at age 2, shares x5 at age 0
+        assertThat(window.hotness(103, DECAY, 1, 3, 5)).isCloseTo(2 * 0.125 + 3 * 0.25 + 5 * 1.0, within(1e-9));
+    }
+
+    @Test
+    void reusedSlotDropsThePreviousPeriod() {
+        EngagementWindow window = new EngagementWindow(4, "Pune");
+        window.record(EngagementWindow.VOTES, 100, 10);
+        window.record(EngagementWindow.VOTES, 104, 1);
+
+        assertThat(window.hotness(104, DECAY, 1, 0, 0)).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void ignoresEventsOutsideTheWindow() {
+        EngagementWindow window = new EngagementWindow(4, "Pune");
+        window.record(EngagementWindow.VOTES, 104, 1);
+        // Same ring slot as 104, but older: already slid out
+        window.record(EngagementWindow.VOTES, 100, 10);
+
+        assertThat(window.hotness(104, DECAY, 1, 0, 0)).isCloseTo(1.0, within(1e-9));
+        assertThat(window.hotness(108, DECAY, 1, 0, 0)).isZero();
+    }
+
+    @Test
+    void becomesIdleOnceTheLastEventLeavesTheWindow() {
+        EngagementWindow window = new EngagementWindow(4, "Pune");
+        window.record(EngagementWindow.COMMENTS, 50, 1);
+
+        assertThat(window.isIdle(53)).isFalse();
+        assertThat(window.isIdle(54)).isTrue();
+    }
+
+    @Test
+    void keepsLocationWhenUpdatedWithNull() {
+        EngagementWindow window = new EngagementWindow(4, "Pune");
+        window.location(null);
+        assertThat(window.location()).isEqualTo("Pune");
+
+        window.location("Mumbai");
+        assertThat(window.location()).isEqualTo("Mumbai");
+    }
+}
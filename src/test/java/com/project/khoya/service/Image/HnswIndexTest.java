@@ -0,0 +1,135 @@
+package com.project.khoya.service.Image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+    private static final int COUNT = 1000;
+
+    @TempDir
+    Path directory;
+
+    private EmbeddingStore store;
+    private float[][] vectors;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FeatureExtractionService featureExtractionService = mock(FeatureExtractionService.class);
+        when(featureExtractionService.getFeatureDimension()).thenReturn(DIMENSION);
+        store = new EmbeddingStore(featureExtractionService, new ScalarSimilarityKernel());
+        ReflectionTestUtils.setField(store, "storePath", directory.resolve("embeddings.slab").toString());
+        store.open();
+
+        Random random = new Random(3);
+        vectors = new float[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            vectors[i] = unitVector(random);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void findsStoredVectorFirst() {
+        HnswIndex index = build();
+
+        List<SimilarityHit> hits = index.search(vectors[42], 5, 50);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).alertId()).isEqualTo(43L);
+        assertThat(hits.get(0).similarity()).isCloseTo(1.0, within(1e-5));
+        assertThat(hits).isSortedAccordingTo(Comparator.comparingDouble(SimilarityHit::similarity).reversed());
+    }
+
+    @Test
+    void recallMatchesExactSearch() {
+        HnswIndex index = build();
+        Random random = new Random(11);
+        int queries = 50;
+        int k = 10;
+        int found = 0;
+
+        for (int q = 0; q < queries; q++) {
+            float[] query = unitVector(random);
+            Set<Long> exact = IntStream.range(0, COUNT).boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> dot(query, vectors[i])).reversed())
+                    .limit(k)
+                    .map(i -> i + 1L)
+                    .collect(Collectors.toSet());
+            found += (int) index.search(query, k, 100).stream().filter(hit -> exact.contains(hit.alertId())).count();
+        }
+
+        assertThat((double) found / (queries * k)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void removedAlertsAreNeverReturned() {
+        HnswIndex index = build();
+
+        assertThat(index.remove(43L)).isTrue();
+        assertThat(index.remove(43L)).isFalse();
+
+        assertThat(index.contains(43L)).isFalse();
+        assertThat(index.search(vectors[42], 10, 50)).extracting(SimilarityHit::alertId).doesNotContain(43L);
+        assertThat(index.size()).isEqualTo(COUNT - 1);
+        assertThat(index.deletedRatio()).isGreaterThan(0);
+    }
+
+    @Test
+    void emptyIndexReturnsNothing() {
+        HnswIndex index = new HnswIndex(store, 16, 100);
+
+        assertThat(index.search(vectors[0], 5, 50)).isEmpty();
+    }
+
+    private HnswIndex build() {
+        HnswIndex index = new HnswIndex(store, 16, 100);
+        for (int i = 0; i < COUNT; i++) {
+            long alertId = i + 1L;
+            index.add(alertId, store.put(alertId, vectors[i], 1L));
+        }
+        return index;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] unitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,162 @@
+package com.project.khoya.service.Image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private final ImagePreprocessor imagePreprocessor = mock(ImagePreprocessor.class);
+    private final List<ImageSpool> spools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ImageSpool spool : spools) {
+            spool.shutdown();
+        }
+    }
+
+    @Test
+    void readsBackWhatWasSpooled() throws Exception {
+        ImageSpool spool = spool(10, 1_000, 10);
+
+        spool.spool(1L, bytes(5));
+
+        assertThat(spool.read(1L)).contains(bytes(5));
+        assertThat(spool.read(2L)).isEmpty();
+        spool.delete(1L);
+        assertThat(spool.read(1L)).isEmpty();
+    }
+
+    @Test
+    void evictsOldestBeyondTheFileLimit() throws Exception {
+        ImageSpool spool = spool(3, 1_000, 10);
+
+        spool.spool(1L, bytes(1));
+        spool.spool(2L, bytes(2));
+        spool.spool(3L, bytes(3));
+        // Re-spooling moves alert 1 to the young end, so 2 is now the oldest
+        spool.spool(1L, bytes(4));
+        spool.spool(4L, bytes(5));
+
+        assertThat(spool.read(2L)).isEmpty();
+        assertThat(spool.read(1L)).contains(bytes(4));
+        assertThat(spool.read(3L)).isPresent();
+        assertThat(spool.read(4L)).isPresent();
+    }
+
+    @Test
+    void evictsOldestBeyondTheByteLimitButKeepsTheNewest() throws Exception {
+        ImageSpool spool = spool(10, 100, 10);
+
+        spool.spool(1L, bytes(60));
+        spool.spool(2L, bytes(30));
+        spool.spool(3L, bytes(50));
+
+        assertThat(spool.read(1L)).isEmpty();
+        assertThat(spool.read(2L)).isPresent();
+        assertThat(spool.read(3L)).isPresent();
+
+        // A single oversized image is still kept
+        spool.spool(4L, bytes(150));
+        assertThat(spool.read(4L)).isPresent();
+        assertThat(spool.read(3L)).isEmpty();
+    }
+
+    @Test
+    void removesExpiredImages() throws Exception {
+        ImageSpool spool = spool(10, 1_000, 10);
+        spool.spool(1L, bytes(1));
+        Thread.sleep(5);
+
+        ReflectionTestUtils.setField(spool, "maxAgeMinutes", 0L);
+        spool.removeExpired();
+
+        assertThat(spool.read(1L)).isEmpty();
+    }
+
+    @Test
+    void restartPicksUpLeftoverFilesOldestFirst() throws Exception {
+        for (long alertId = 1; alertId <= 3; alertId++) {
+            Path file = directory.resolve(alertId + ".img");
+            Files.write(file, bytes(10));
+            // Alert 3 is the oldest file on disk
+            Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000 - alertId * 1_000));
+        }
+        Files.write(directory.resolve("notes.txt"), bytes(1));
+
+        ImageSpool spool = spool(2, 1_000, 10);
+
+        assertThat(spool.read(3L)).isEmpty();
+        assertThat(spool.read(1L)).isPresent();
+        assertThat(spool.read(2L)).isPresent();
+        assertThat(directory.resolve("notes.txt")).exists();
+    }
+
+    @Test
+    void saturatedQueueSkipsSpoolingAndRunsTheContinuationRightAway() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(imagePreprocessor.decodeDownscaledTransient(any())).thenAnswer(call -> {
+            writing.countDown();
+            release.await();
+            return null;
+        });
+        ImageSpool spool = spool(10, 1_000, 1);
+        CountDownLatch published = new CountDownLatch(3);
+        List<String> order = new ArrayList<>();
+
+        spool.spoolAsync(1L, bytes(1), published::countDown);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        spool.spoolAsync(2L, bytes(1), published::countDown);
+        spool.spoolAsync(3L, bytes(1), () -> {
+            order.add("rejected");
+            published.countDown();
+        });
+
+        // The rejected image ran its continuation on the caller, before the queued ones
+        assertThat(order).containsExactly("rejected");
+        assertThat(published.getCount()).isEqualTo(2);
+        release.countDown();
+        assertThat(published.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(spool.read(3L)).isEmpty();
+        assertThat(spool.read(2L)).isPresent();
+    }
+
+    private ImageSpool spool(int maxFiles, long maxBytes, int queueSize) throws Exception {
+        ImageSpool spool = new ImageSpool(imagePreprocessor);
+        ReflectionTestUtils.setField(spool, "spoolDir", directory.toString());
+        ReflectionTestUtils.setField(spool, "maxFiles", maxFiles);
+        ReflectionTestUtils.setField(spool, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(spool, "maxAgeMinutes", 60L);
+        ReflectionTestUtils.setField(spool, "queueSize", queueSize);
+        spool.init();
+        spools.add(spool);
+        return spool;
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (length + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,93 @@
+package com.project.khoya.service.Image;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuantizedCodesTest {
+
+    private static final int DIMENSION = 100;
+
+    @Test
+    void int8CodesReconstructWithinHalfAStep() {
+        float[] vector = unitVector(new Random(1));
+        byte[] codes = new byte[DIMENSION + 3];
+
+        float scale = EmbeddingQuantizer.quantizeInt8(vector, codes, 3);
+
+        for (int i = 0; i < DIMENSION; i++) {
+            assertThat(Math.abs(codes[3 + i] * scale - vector[i])).isLessThanOrEqualTo(scale / 2 + 1e-6f);
+        }
+        assertThat(EmbeddingQuantizer.quantizeInt8(new float[DIMENSION], codes, 0)).isZero();
+    }
+
+    @Test
+    void binaryCodesMarkValuesAboveTheMean() {
+        float[] vector = new float[70];
+        vector[0] = 1f;
+        vector[64] = 1f;
+        vector[69] = 1f;
+        long[] bits = new long[1 + EmbeddingQuantizer.wordsFor(vector.length)];
+
+        EmbeddingQuantizer.quantizeBinary(vector, bits, 1);
+
+        assertThat(EmbeddingQuantizer.wordsFor(70)).isEqualTo(2);
+        assertThat(bits[1]).isEqualTo(1L);
+        assertThat(bits[2]).isEqualTo(1L | 1L << 5);
+    }
+
+    @Test
+    void int8ScoresTrackTheExactDotProduct() {
+        assertRanksNearestFirst(EmbeddingQuantizer.Mode.INT8);
+    }
+
+    @Test
+    void binaryScoresRankAnIdenticalVectorFirst() {
+        assertRanksNearestFirst(EmbeddingQuantizer.Mode.BINARY);
+    }
+
+    private static void assertRanksNearestFirst(EmbeddingQuantizer.Mode mode) {
+        Random random = new Random(7);
+        int count = 2000;
+        float[][] vectors = new float[count][];
+        QuantizedCodes codes = new QuantizedCodes(mode, DIMENSION);
+        for (int slot = 0; slot < count; slot++) {
+            vectors[slot] = unitVector(random);
+            codes.put(slot, vectors[slot]);
+        }
+
+        int target = 1234;
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = i;
+        }
+        float[] scores = new float[count];
+        codes.scoreAll(vectors[target], slots, count, scores);
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        assertThat(best).isEqualTo(target);
+        if (mode == EmbeddingQuantizer.Mode.INT8) {
+            assertThat(scores[target]).isBetween(0.99f, 1.01f);
+        }
+    }
+
+    private static float[] unitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
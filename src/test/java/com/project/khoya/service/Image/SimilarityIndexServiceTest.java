@@ -0,0 +1,231 @@
+package com.project.khoya.service.Image;
+
+import com.project.khoya.entity.AlertStatus;
+import com.project.khoya.repository.AlertEmbeddingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SimilarityIndexServiceTest {
+
+    private static final int DIMENSION = 32;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(5);
+    private EmbeddingStore store;
+    private SimilarityIndexService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FeatureExtractionService featureExtractionService = mock(FeatureExtractionService.class);
+        when(featureExtractionService.getFeatureDimension()).thenReturn(DIMENSION);
+        when(featureExtractionService.getModelVersion()).thenReturn("test");
+        AlertEmbeddingRepository embeddingRepository = mock(AlertEmbeddingRepository.class);
+        when(embeddingRepository.findIndexableAfterId(any(), anyLong(), any())).thenReturn(List.of());
+        EmbeddingQuantizer quantizer = mock(EmbeddingQuantizer.class);
+
+        store = new EmbeddingStore(featureExtractionService, new ScalarSimilarityKernel());
+        ReflectionTestUtils.setField(store, "storePath", directory.resolve("embeddings.slab").toString());
+        store.open();
+
+        service = new SimilarityIndexService(embeddingRepository, featureExtractionService, store, quantizer);
+        ReflectionTestUtils.setField(service, "m", 16);
+        ReflectionTestUtils.setField(service, "efConstruction", 64);
+        ReflectionTestUtils.setField(service, "efSearch", 64);
+        ReflectionTestUtils.setField(service, "maxDeletedRatio", 0.2);
+        ReflectionTestUtils.setField(service, "rerankFactor", 10);
+        ReflectionTestUtils.setField(service, "prefilterMaxSelectivity", 0.05);
+        service.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void writesDuringCompactionAreReplayedOntoTheNewGraph() throws Exception {
+        for (long alertId = 1; alertId <= 4000; alertId++) {
+            upsert(alertId, "Pune");
+        }
+        ReflectionTestUtils.setField(service, "compactionRequested", true);
+        ReentrantReadWriteLock lock = (ReentrantReadWriteLock) ReflectionTestUtils.getField(service, "lock");
+
+        CompletableFuture<Void> compaction = CompletableFuture.runAsync(service::compactIfRequested);
+        List<Long> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        int journaled = 0;
+        long next = 10_001;
+        while (!compaction.isDone()) {
+            // Holding the service's own (reentrant) write lock shows whether these writes land mid-rebuild
+            lock.writeLock().lock();
+            try {
+                if (ReflectionTestUtils.getField(service, "pendingDuringRebuild") != null) {
+                    journaled++;
+                }
+                upsert(next, "Pune");
+                added.add(next);
+                service.remove(next - 10_000);
+                removed.add(next - 10_000);
+                next++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Thread.sleep(1);
+        }
+        compaction.get(30, TimeUnit.SECONDS);
+
+        HnswIndex index = (HnswIndex) ReflectionTestUtils.getField(service, "index");
+        assertThat(journaled).isPositive();
+        assertThat(added).allMatch(index::contains);
+        assertThat(removed).noneMatch(index::contains);
+        assertThat(index.size()).isEqualTo(store.size());
+        assertThat(ReflectionTestUtils.getField(service, "pendingDuringRebuild")).isNull();
+    }
+
+    @Test
+    void compactionDropsTombstones() {
+        for (long alertId = 1; alertId <= 500; alertId++) {
+            upsert(alertId, "Pune");
+        }
+        for (long alertId = 1; alertId <= 200; alertId++) {
+            service.remove(alertId);
+        }
+        HnswIndex before = (HnswIndex) ReflectionTestUtils.getField(service, "index");
+        assertThat(before.deletedRatio()).isGreaterThan(0.2);
+
+        service.compactIfRequested();
+
+        HnswIndex after = (HnswIndex) ReflectionTestUtils.getField(service, "index");
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.deletedRatio()).isZero();
+        assertThat(after.size()).isEqualTo(300);
+        // Slots released before the snapshot are reusable once the new graph is current
+        assertThat(store.releasedSlotCount()).isZero();
+    }
+
+    @Test
+    void selectiveFilterScansTheMatchesInsteadOfTheGraph() {
+        float[][] vectors = populate();
+        HnswIndex graph = spyOnGraph();
+
+        List<SimilarityHit> hits = service.search(vectors[10], SimilarityQuery.builder().topK(5).location("nashik").build());
+
+        verify(graph, never()).search(any(float[].class), anyInt(), anyInt());
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).alertId()).isEqualTo(11L);
+        assertThat(hits).allMatch(hit -> isNashik(hit.alertId()));
+    }
+
+    @Test
+    void broadFilterPostFiltersTheGraph() {
+        float[][] vectors = populate();
+        HnswIndex graph = spyOnGraph();
+
+        List<SimilarityHit> hits = service.search(vectors[2], SimilarityQuery.builder().topK(10).build());
+
+        verify(graph).search(any(float[].class), anyInt(), anyInt());
+        assertThat(hits).hasSize(10);
+        assertThat(hits.get(0).alertId()).isEqualTo(3L);
+        assertThat(hits).noneMatch(hit -> isClosed(hit.alertId()));
+    }
+
+    @Test
+    void shortPostFilteredResultFallsBackToTheScan() {
+        float[][] vectors = populate();
+        HnswIndex graph = spyOnGraph();
+        doReturn(List.of()).when(graph).search(any(float[].class), anyInt(), anyInt());
+
+        List<SimilarityHit> hits = service.search(vectors[2], SimilarityQuery.builder().topK(10).statuses(Set.of(AlertStatus.ACTIVE, AlertStatus.CLOSED)).build());
+
+        assertThat(hits).hasSize(10);
+        assertThat(hits.get(0).alertId()).isEqualTo(3L);
+    }
+
+    @Test
+    void radiusFilterSkipsAlertsOutsideTheCircleOrWithoutCoordinates() {
+        // Pune, about 120 km from Mumbai
+        for (long alertId = 1; alertId <= 300; alertId++) {
+            Double latitude = alertId % 3 == 0 ? null : alertId % 3 == 1 ? 18.5204 : 19.0760;
+            Double longitude = latitude == null ? null : latitude == 18.5204 ? 73.8567 : 72.8777;
+            service.upsert(alertId, unitVector(), CREATED, new AlertAttributes(AlertStatus.ACTIVE, CREATED, "Maharashtra", latitude, longitude));
+        }
+
+        List<SimilarityHit> hits = service.search(unitVector(), SimilarityQuery.builder().topK(200).latitude(18.52).longitude(73.85).radiusKm(25.0).build());
+
+        assertThat(hits).hasSize(100);
+        assertThat(hits).allMatch(hit -> hit.alertId() % 3 == 1);
+    }
+
+    // 1000 alerts: every 100th one in Nashik (1%), every 4th one closed (25%), the rest active in Pune
+    private float[][] populate() {
+        float[][] vectors = new float[1000][];
+        for (int i = 0; i < vectors.length; i++) {
+            long alertId = i + 1L;
+            vectors[i] = unitVector();
+            AlertStatus status = isClosed(alertId) ? AlertStatus.CLOSED : AlertStatus.ACTIVE;
+            String location = isNashik(alertId) ? "Nashik" : "Pune";
+            service.upsert(alertId, vectors[i], CREATED, new AlertAttributes(status, CREATED, location, null, null));
+        }
+        return vectors;
+    }
+
+    private HnswIndex spyOnGraph() {
+        HnswIndex graph = spy((HnswIndex) ReflectionTestUtils.getField(service, "index"));
+        ReflectionTestUtils.setField(service, "index", graph);
+        return graph;
+    }
+
+    private static boolean isNashik(long alertId) {
+        return alertId % 100 == 11;
+    }
+
+    private static boolean isClosed(long alertId) {
+        return alertId % 4 == 0;
+    }
+
+    private float[] upsert(long alertId, String location) {
+        float[] vector = unitVector();
+        service.upsert(alertId, vector, CREATED, new AlertAttributes(AlertStatus.ACTIVE, CREATED, location, null, null));
+        return vector;
+    }
+
+    private float[] unitVector() {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.khoya.service;
+
+import com.project.khoya.entity.VoteType;
+import com.project.khoya.repository.UserStatsRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatsServiceTest {
+
+    private final UserStatsRepository userStatsRepository = mock(UserStatsRepository.class);
+    private final UserStatsService userStats = new UserStatsService(userStatsRepository);
+
+    @Test
+    void voteChangesMoveReputationByTheDifference() {
+        userStats.alertVoteChanged(1L, null, VoteType.UP);
+        userStats.alertVoteChanged(2L, VoteType.UP, VoteType.DOWN);
+        userStats.alertVoteChanged(3L, VoteType.DOWN, null);
+
+        verify(userStatsRepository).applyDelta(1L, 1, 0, 0, 0);
+        verify(userStatsRepository).applyDelta(2L, -2, 0, 0, 0);
+        verify(userStatsRepository).applyDelta(3L, 1, 0, 0, 0);
+    }
+
+    @Test
+    void unchangedVoteTouchesNothing() {
+        userStats.alertVoteChanged(1L, VoteType.UP, VoteType.UP);
+        userStats.alertVoteChanged(1L, null, null);
+        userStats.commentsRemoved(1L, 0);
+
+        verify(userStatsRepository, never()).applyDelta(anyLong(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void deletingAnAlertRemovesItsWholeContribution() {
+        userStats.alertDeleted(1L, true, 4);
+        userStats.alertDeleted(2L, false, -3);
+
+        verify(userStatsRepository).applyDelta(1L, -4, -1, -1, 0);
+        verify(userStatsRepository).applyDelta(2L, 3, -1, 0, 0);
+    }
+
+    @Test
+    void backfillsOnlyAnEmptyTable() {
+        when(userStatsRepository.count()).thenReturn(5L);
+        userStats.backfillIfEmpty();
+        verify(userStatsRepository, never()).rebuildAll();
+
+        when(userStatsRepository.count()).thenReturn(0L);
+        userStats.backfillIfEmpty();
+        verify(userStatsRepository).rebuildAll();
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.khoya.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoHashTest {
+
+    @Test
+    void encodesKnownHashes() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(GeoHash.encode(0, 0, 1)).isEqualTo("s");
+        assertThat(GeoHash.encode(-90, -180, 5)).isEqualTo("00000");
+    }
+
+    @Test
+    void nearbyPointsSharePrefix() {
+        String a = GeoHash.encode(18.5204, 73.8567, 7);
+        String b = GeoHash.encode(18.5205, 73.8568, 7);
+
+        assertThat(a.substring(0, 6)).isEqualTo(b.substring(0, 6));
+    }
+
+    @Test
+    void measuresGreatCircleDistance() {
+        // One degree of longitude on the equator
+        assertThat(GeoHash.distanceKm(0, 0, 0, 1)).isCloseTo(111.2, within(0.1));
+        // Pune to Mumbai
+        assertThat(GeoHash.distanceKm(18.5204, 73.8567, 19.0760, 72.8777)).isCloseTo(120, within(5.0));
+        assertThat(GeoHash.distanceKm(10, 20, 10, 20)).isZero();
+    }
+
+    @Test
+    void boundingBoxContainsCircle() {
+        double[] box = GeoHash.boundingBox(18.5204, 73.8567, 10);
+
+        assertThat(GeoHash.distanceKm(18.5204, 73.8567, box[0], 73.8567)).isCloseTo(10, within(0.01));
+        assertThat(GeoHash.distanceKm(18.5204, 73.8567, 18.5204, box[3])).isGreaterThan(9.999);
+        assertThat(GeoHash.boundingBox(89.99, 0, 50)).containsExactly(89.99 - Math.toDegrees(50 / 6371.0088), -180, 90, 180);
+    }
+
+    @Test
+    void coveringCellsIncludeEveryPointInTheBox() {
+        double minLat = 18.40, minLon = 73.70, maxLat = 18.65, maxLon = 74.00;
+        int precision = GeoHash.precisionFor(minLat, minLon, maxLat, maxLon, 16);
+        List<String> cells = GeoHash.coveringCells(minLat, minLon, maxLat, maxLon, precision);
+
+        assertThat(cells.size()).isLessThanOrEqualTo(16);
+        for (double lat = minLat; lat <= maxLat; lat += 0.05) {
+            for (double lon = minLon; lon <= maxLon; lon += 0.05) {
+                assertThat(cells).contains(GeoHash.encode(lat, lon, precision));
+            }
+        }
+    }
+}
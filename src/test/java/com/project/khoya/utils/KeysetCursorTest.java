@@ -0,0 +1,83 @@
+package com.project.khoya.utils;
+
+import com.project.khoya.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final Sort RECENT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    private static final Sort SCORE = Sort.by(Sort.Order.desc("score"), Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    @Test
+    void roundTripsKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("score", 12);
+        keys.put("createdAt", LocalDateTime.of(2025, 3, 1, 9, 30, 15, 250_000_000));
+        keys.put("id", 4711L);
+
+        KeysetScrollPosition position = KeysetCursor.decode(KeysetCursor.encode("score", ScrollPosition.forward(keys)), "score", SCORE);
+
+        assertThat(position.getKeys()).containsExactlyEntriesOf(keys);
+    }
+
+    @Test
+    void blankCursorStartsAtTheTop() {
+        assertThat(KeysetCursor.decode(null, "recent", RECENT).isInitial()).isTrue();
+        assertThat(KeysetCursor.decode(" ", "recent", RECENT).isInitial()).isTrue();
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String cursor = KeysetCursor.encode("recent", ScrollPosition.forward(recentKeys()));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "score", SCORE)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("not base64 at all!");
+        assertInvalid(raw("v2|recent|createdAt:t:2025-03-01T09:30,id:l:1"));
+        assertInvalid(raw("v1|recent"));
+        assertInvalid(raw("v1|recent|createdAt:t:yesterday,id:l:1"));
+        assertInvalid(raw("v1|recent|createdAt:t:2025-03-01T09:30,id:x:1"));
+        assertInvalid(raw("v1|recent|createdAt:t:2025-03-01T09:30,id"));
+        assertInvalid(raw("v1|recent|"));
+    }
+
+    @Test
+    void rejectsForgedKeys() {
+        // Other columns, missing or duplicated keys, or keys out of sort order
+        assertInvalid(raw("v1|recent|createdAt:t:2025-03-01T09:30,postedBy.id:l:1"));
+        assertInvalid(raw("v1|recent|id:l:1"));
+        assertInvalid(raw("v1|recent|createdAt:t:2025-03-01T09:30,id:l:1,id:l:2"));
+        assertInvalid(raw("v1|recent|id:l:1,createdAt:t:2025-03-01T09:30"));
+        assertInvalid(raw("v1|recent|createdAt:t:2025-03-01T09:30,id:l:1,reportCount:i:0"));
+    }
+
+    private static Map<String, Object> recentKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", LocalDateTime.of(2025, 3, 1, 9, 30));
+        keys.put("id", 1L);
+        return keys;
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "recent", RECENT)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}